@@ -0,0 +1,132 @@
+package chess;
+
+import chess.engine.Board;
+import chess.engine.Engine;
+import chess.engine.GameArchive;
+import chess.engine.GameArchiveWriter;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * Command line tool for binary game archives. Usage:
+ *   java chess.Archive convert out.jcga in.pgn|in.txt ...
+ *   java chess.Archive info file.jcga
+ *   java chess.Archive show file.jcga game [plies]
+ *   java chess.Archive bench file.jcga
+ * Files that don't end in ".pgn" are read as console moves, one per line.
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public class Archive {
+
+	/**
+	 * Main method, runs the command passed as first argument
+	 * @param args The command line arguments passed to main
+	 */
+	public static void main(String[] args) {
+		if (args.length < 2) {
+			usage();
+		}
+		try {
+			if (args[0].equals("convert")) {
+				convert(args);
+			} else if (args[0].equals("info")) {
+				try (GameArchive archive = new GameArchive(Paths.get(args[1]))) {
+					long plies = 0L;
+					for (int i = 0; i < archive.size(); ++i) {
+						plies += archive.getPlies(i);
+					}
+					System.out.println("Games: " + archive.size() + ", plies: " + plies);
+				}
+			} else if (args[0].equals("show") && args.length > 2) {
+				try (GameArchive archive = new GameArchive(Paths.get(args[1]))) {
+					int game = Integer.parseInt(args[2]);
+					int plies = args.length > 3 ? Integer.parseInt(args[3]) : archive.getPlies(game);
+					Board board = new Engine().getBoard();
+					archive.replay(game, board, plies);
+					System.out.println("White: " + archive.getTag(game, "White"));
+					System.out.println("Black: " + archive.getTag(game, "Black"));
+					System.out.println("Result: " + archive.getResult(game));
+					System.out.println(board.toFen());
+				}
+			} else if (args[0].equals("bench")) {
+				bench(args[1]);
+			} else {
+				usage();
+			}
+		} catch (IOException e) {
+			System.err.println(e.getMessage());
+			System.exit(1);
+		} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+			System.err.println(e.getMessage());
+			usage();
+		}
+	}
+
+	/**
+	 * Converts PGN and console move files into an archive
+	 * @param args The command line arguments, output file first
+	 * @throws IOException If a file can't be read or written
+	 */
+	private static void convert(String[] args) throws IOException {
+		long start = System.nanoTime();
+		try (GameArchiveWriter writer = new GameArchiveWriter(Paths.get(args[1]))) {
+			for (int i = 2; i < args.length; ++i) {
+				try (Reader in = new InputStreamReader(
+					Files.newInputStream(Paths.get(args[i])), StandardCharsets.ISO_8859_1)) {
+					if (args[i].toLowerCase().endsWith(".pgn")) {
+						writer.addPgn(in, System.err);
+					} else {
+						writer.addCoordinateGames(new BufferedReader(in), System.err);
+					}
+				}
+			}
+			System.out.println("Games: " + writer.size());
+		}
+		long ms = Math.max(1L, (System.nanoTime() - start) / 1000000L);
+		System.out.println("Time: " + ms + " ms");
+		System.out.println("Size: " + Files.size(Paths.get(args[1])) + " bytes");
+	}
+
+	/**
+	 * Replays every game of an archive and prints the games per second
+	 * @param file The archive file
+	 * @throws IOException If the file can't be read
+	 */
+	private static void bench(String file) throws IOException {
+		long start = System.nanoTime();
+		try (GameArchive archive = new GameArchive(Paths.get(file))) {
+			Board board = new Engine().getBoard();
+			long plies = 0L;
+			for (int i = 0; i < archive.size(); ++i) {
+				int n = archive.getPlies(i);
+				archive.replay(i, board, n);
+				plies += n;
+			}
+			long ms = Math.max(1L, (System.nanoTime() - start) / 1000000L);
+			System.out.println("Games: " + archive.size() + ", plies: " + plies);
+			System.out.println("Time: " + ms + " ms");
+			System.out.println("Games/second: " + archive.size() * 1000L / ms);
+		}
+	}
+
+	/**
+	 * Prints how to use the tool and exits
+	 */
+	private static void usage() {
+		System.err.println("Usage: java chess.Archive convert out.jcga in.pgn|in.txt ...");
+		System.err.println("       java chess.Archive info file.jcga");
+		System.err.println("       java chess.Archive show file.jcga game [plies]");
+		System.err.println("       java chess.Archive bench file.jcga");
+		System.exit(2);
+	}
+}
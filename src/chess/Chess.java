@@ -1,6 +1,12 @@
 package chess;
 
+import chess.engine.BoardRenderer;
 import chess.engine.Engine;
+import chess.engine.Position;
+import chess.engine.UciProtocol;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Rutgers New Brunswick
@@ -12,11 +18,59 @@ import chess.engine.Engine;
 public class Chess {
 
 	/**
-	 * Main method, chess game starts here
+	 * Main method, chess game starts here. A FEN string can be passed as
+	 * arguments to start from that position instead of the initial one.
+	 * "--no-board" turns off drawing the board and "--ansi" only redraws
+	 * the squares that changed. "--uci" talks the Universal Chess Interface
+	 * instead of playing on the console. "--computer white|black" lets the
+	 * computer play that side, thinking "--movetime" milliseconds per move.
 	 * @param args The command line arguments passed to main
+	 * @throws IOException If the input of the UCI mode can't be read
 	 */
-	public static void main(String[] args) {
-		new Engine().start();
+	public static void main(String[] args) throws IOException {
+		if (args.length > 0 && args[0].equals("--uci")) {
+			new UciProtocol(System.in, System.out).run();
+			return;
+		}
+		int renderMode = BoardRenderer.FULL;
+		int computerColor = Position.EMPTY;
+		long movetime = 1000L;
+		List<String> fen = new ArrayList<String>();
+		for (int i = 0; i < args.length; ++i) {
+			String arg = args[i];
+			if (arg.equals("--computer") && i + 1 < args.length) {
+				computerColor = args[++i].equalsIgnoreCase("black") ? Position.BLACK : Position.WHITE;
+			} else if (arg.equals("--movetime") && i + 1 < args.length) {
+				movetime = Long.parseLong(args[++i]);
+			} else if (arg.equals("--no-board")) {
+				renderMode = BoardRenderer.NONE;
+			} else if (arg.equals("--ansi")) {
+				renderMode = BoardRenderer.ANSI_DIFF;
+			} else {
+				fen.add(arg);
+			}
+		}
+		Engine engine;
+		try {
+			engine = fen.isEmpty() ? new Engine() : new Engine(String.join(" ", fen));
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			usage();
+			return;
+		}
+		engine.setRenderMode(renderMode);
+		engine.setComputerPlayer(computerColor, movetime);
+		engine.start();
+	}
+
+	/**
+	 * Prints how to use the game and exits
+	 */
+	private static void usage() {
+		System.err.println("Usage: java chess.Chess [--no-board|--ansi] [--computer white|black]");
+		System.err.println("           [--movetime ms] [fen]");
+		System.err.println("       java chess.Chess --uci");
+		System.exit(2);
 	}
 
 }
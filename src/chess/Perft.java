@@ -0,0 +1,202 @@
+package chess;
+
+import chess.engine.Engine;
+import chess.engine.ParallelPerft;
+import chess.engine.PerftCounter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * Command line perft tool. Usage:
+ *   java chess.Perft [options] depth [fen]
+ *   java chess.Perft divide depth [fen]
+ *   java chess.Perft [options] suite [maxDepth]
+ * Options, any of them counts on a ForkJoinPool:
+ *   --threads N     number of threads
+ *   --hash MB       size of the table of subtree counts
+ *   --split N       number of plies whose moves are split into tasks
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public class Perft {
+
+	/**
+	 * Counts on several threads when not null
+	 */
+	private static ParallelPerft parallel;
+
+	/**
+	 * Main method, counts the move tree of a position
+	 * @param args The command line arguments passed to main
+	 */
+	public static void main(String[] args) {
+		try {
+			args = parseOptions(args);
+			if (args.length == 0) {
+				usage();
+			} else if (args[0].equals("suite")) {
+				int maxDepth = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+				boolean ok = suite(maxDepth);
+				printThreadStats();
+				if (!ok) {
+					System.exit(1);
+				}
+			} else if (args[0].equals("divide")) {
+				if (args.length < 2) {
+					usage();
+				}
+				PerftCounter counter = counter(fen(args, 2));
+				long start = System.nanoTime();
+				long nodes = counter.divide(Integer.parseInt(args[1]), System.out);
+				report(nodes, System.nanoTime() - start);
+			} else {
+				PerftCounter counter = counter(fen(args, 1));
+				long start = System.nanoTime();
+				long nodes = perft(counter, Integer.parseInt(args[0]));
+				System.out.println("Nodes: " + nodes);
+				report(nodes, System.nanoTime() - start);
+				printThreadStats();
+			}
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			usage();
+		}
+	}
+
+	/**
+	 * Runs all reference positions up to "maxDepth" and compares the counts
+	 * @param maxDepth The deepest depth to check
+	 * @return true if all counts match, false otherwise
+	 */
+	private static boolean suite(int maxDepth) {
+		boolean ok = true;
+		long totalNodes = 0L;
+		long totalTime = 0L;
+		for (int i = 0; i < PerftCounter.referenceFens.length; ++i) {
+			String fen = PerftCounter.referenceFens[i];
+			long[] expected = PerftCounter.referenceCounts[i];
+			System.out.println(fen);
+			PerftCounter counter = counter(fen);
+			for (int depth = 1; depth <= Math.min(maxDepth, expected.length); ++depth) {
+				long start = System.nanoTime();
+				long nodes = perft(counter, depth);
+				long time = System.nanoTime() - start;
+				totalNodes += nodes;
+				totalTime += time;
+				boolean match = nodes == expected[depth - 1];
+				ok &= match;
+				System.out.println("  depth " + depth + ": " + nodes
+					+ (match ? " ok" : " FAILED, expected " + expected[depth - 1]));
+			}
+		}
+		System.out.println();
+		report(totalNodes, totalTime);
+		System.out.println(ok ? "All counts match" : "Count mismatch");
+		return ok;
+	}
+
+	/**
+	 * Reads the options in front of the other arguments and creates
+	 * "parallel" if there are any
+	 * @param args The command line arguments
+	 * @return The arguments after the options
+	 */
+	private static String[] parseOptions(String[] args) {
+		int threads = 0;
+		int hashMb = 0;
+		int split = 0;
+		int i = 0;
+		for (; i + 1 < args.length && args[i].startsWith("--"); i += 2) {
+			int value = Integer.parseInt(args[i + 1]);
+			if (args[i].equals("--threads")) {
+				threads = value;
+			} else if (args[i].equals("--hash")) {
+				hashMb = value;
+			} else if (args[i].equals("--split")) {
+				split = value;
+			} else {
+				throw new IllegalArgumentException("Unknown option " + args[i]);
+			}
+		}
+		if (threads > 0 || hashMb > 0 || split > 0) {
+			parallel = new ParallelPerft(threads > 0 ? threads : Runtime.getRuntime().availableProcessors(),
+				hashMb, split > 0 ? split : 1);
+		}
+		List<String> rest = new ArrayList<String>();
+		for (; i < args.length; ++i) {
+			rest.add(args[i]);
+		}
+		return rest.toArray(new String[0]);
+	}
+
+	/**
+	 * @param counter The counter of the position
+	 * @param depth The number of plies to search
+	 * @return The number of leaves, counted on several threads if "parallel" is set
+	 */
+	private static long perft(PerftCounter counter, int depth) {
+		if (parallel == null) {
+			return counter.perft(depth);
+		}
+		return parallel.perft(counter.getBoard().getPosition(), depth);
+	}
+
+	/**
+	 * Prints the statistics of each thread when counting on several threads
+	 */
+	private static void printThreadStats() {
+		if (parallel != null) {
+			System.out.println();
+			parallel.printThreadStats(System.out);
+			parallel.shutdown();
+		}
+	}
+
+	/**
+	 * @param fen The FEN string of the position
+	 * @return A counter for a new game that starts from "fen"
+	 */
+	private static PerftCounter counter(String fen) {
+		return new PerftCounter(new Engine(fen).getBoard());
+	}
+
+	/**
+	 * Joins the remaining arguments into a FEN string
+	 * @param args The command line arguments
+	 * @param start The index of the first FEN field
+	 * @return The FEN string, or the start position if there are no more arguments
+	 */
+	private static String fen(String[] args, int start) {
+		if (args.length <= start) {
+			return PerftCounter.START_FEN;
+		}
+		return String.join(" ", Arrays.copyOfRange(args, start, args.length));
+	}
+
+	/**
+	 * Prints the time and the number of nodes per second
+	 * @param nodes The number of nodes counted
+	 * @param nanos The time spent in nanoseconds
+	 */
+	private static void report(long nodes, long nanos) {
+		long ms = Math.max(1L, nanos / 1000000L);
+		System.out.println("Time: " + ms + " ms");
+		System.out.println("Nodes/second: " + nodes * 1000L / ms);
+	}
+
+	/**
+	 * Prints how to use the tool and exits
+	 */
+	private static void usage() {
+		System.err.println("Usage: java chess.Perft [options] depth [fen]");
+		System.err.println("       java chess.Perft divide depth [fen]");
+		System.err.println("       java chess.Perft [options] suite [maxDepth]");
+		System.err.println("Options: --threads N, --hash MB, --split N");
+		System.exit(2);
+	}
+}
@@ -0,0 +1,78 @@
+package chess;
+
+import chess.engine.PgnGame;
+import chess.engine.PgnReader;
+import chess.engine.PgnReplayer;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * Command line tool that checks every game of PGN files against the rules
+ * and prints one line per game. Usage:
+ *   java chess.PgnReplay [-q] file.pgn ...
+ * With "-q" only the games with errors are printed.
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public class PgnReplay {
+
+	/**
+	 * Main method, replays the games of the files passed as arguments
+	 * @param args The command line arguments passed to main
+	 */
+	public static void main(String[] args) {
+		boolean quiet = false;
+		PgnReplayer replayer = new PgnReplayer();
+		PgnGame game = new PgnGame();
+		long games = 0L;
+		long errors = 0L;
+		long plies = 0L;
+		long start = System.nanoTime();
+
+		for (String arg : args) {
+			if (arg.equals("-q")) {
+				quiet = true;
+				continue;
+			}
+			try {
+				PgnReader reader = new PgnReader(new InputStreamReader(
+					new FileInputStream(arg), StandardCharsets.ISO_8859_1));
+				try {
+					while (reader.readGame(game)) {
+						++games;
+						boolean ok = replayer.replay(game);
+						plies += replayer.getPlies();
+						if (!ok) {
+							++errors;
+							System.out.println("Game " + games + ": error, " + replayer.getError());
+						} else if (!quiet) {
+							String status = replayer.getStatus();
+							System.out.println("Game " + games + ": ok, " + replayer.getPlies()
+								+ " plies, " + game.getResult() + (status != null ? ", " + status : ""));
+						}
+					}
+				} finally {
+					reader.close();
+				}
+			} catch (IOException e) {
+				System.err.println(arg + ": " + e.getMessage());
+				System.exit(2);
+			}
+		}
+
+		long ms = Math.max(1L, (System.nanoTime() - start) / 1000000L);
+		System.out.println();
+		System.out.println("Games: " + games + ", errors: " + errors + ", plies: " + plies);
+		System.out.println("Time: " + ms + " ms");
+		System.out.println("Games/second: " + games * 1000L / ms);
+		if (errors > 0) {
+			System.exit(1);
+		}
+	}
+}
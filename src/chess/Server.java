@@ -0,0 +1,33 @@
+package chess;
+
+import chess.server.GameServer;
+import java.io.IOException;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * Starts the game server on the loopback address. Usage:
+ *   java chess.Server [port]
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public class Server {
+
+	/**
+	 * Main method, hosts games until the process is stopped
+	 * @param args The command line arguments passed to main
+	 */
+	public static void main(String[] args) {
+		try {
+			int port = args.length > 0 ? Integer.parseInt(args[0]) : 7777;
+			GameServer server = new GameServer(port);
+			System.out.println("Listening on port " + server.getPort());
+			server.serve();
+		} catch (IOException | NumberFormatException e) {
+			System.err.println(e.getMessage());
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,414 @@
+package chess.engine;
+
+import java.util.Arrays;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * Attack sets of every piece type as bitboards. Square numbering is the
+ * same as in Position (square 0 is a8, square 63 is h1).
+ *
+ * Rook and bishop attacks use magic bitboards: the occupied squares on the
+ * rays of a square are multiplied by a "magic" number so that the top bits
+ * of the product are a unique index into a table of attack sets. The
+ * tables are filled when the class is loaded, a new magic number is only
+ * searched if a stored one doesn't work.
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public class Attacks {
+	/**
+	 * Rank and file steps of a knight
+	 */
+	private static final int[][] knightSteps = {
+		{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}
+	};
+
+	/**
+	 * Rank and file steps of a king
+	 */
+	private static final int[][] kingSteps = {
+		{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}
+	};
+
+	/**
+	 * Rank and file directions of a rook
+	 */
+	private static final int[][] rookDirections = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+
+	/**
+	 * Rank and file directions of a bishop
+	 */
+	private static final int[][] bishopDirections = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+	/**
+	 * Squares attacked by a knight on each square
+	 */
+	private static final long[] knightTable = new long[64];
+
+	/**
+	 * Squares attacked by a king on each square
+	 */
+	private static final long[] kingTable = new long[64];
+
+	/**
+	 * Squares attacked by a pawn of each color on each square
+	 */
+	private static final long[][] pawnTable = new long[2][64];
+
+	/**
+	 * Squares on the rook rays of each square that can block, edges excluded
+	 */
+	private static final long[] rookMasks = new long[64];
+
+	/**
+	 * Squares on the bishop rays of each square that can block, edges excluded
+	 */
+	private static final long[] bishopMasks = new long[64];
+
+	/**
+	 * Magic number of each square for rooks
+	 */
+	private static final long[] rookMagics = {
+		0x008000908064C000L, 0x0040200040001000L, 0x0180100080A0010AL, 
+		0x8880041000800800L, 0x1200100201200804L, 0x0200020004011008L, 
+		0x2180010000800600L, 0x0200005088210204L, 0x0000800080204001L, 
+		0x1000804000802001L, 0x8240801000200080L, 0x8611001004200900L, 
+		0x008180800C001800L, 0x0100800200800400L, 0x0A02000102000408L, 
+		0x8020802300104280L, 0x0080004000402000L, 0xE010104000402000L, 
+		0x0800808010002000L, 0xA280210008100100L, 0x0001818014000800L, 
+		0xA002010100080400L, 0x0008040088020130L, 0x0001020004048845L, 
+		0x0081826280004004L, 0x2020810900284000L, 0x0200100080802000L, 
+		0x0200080080100080L, 0x8083080100100500L, 0x4406000901000400L, 
+		0x0005020080800100L, 0x0090204200008114L, 0x0010400094800420L, 
+		0x0900804000802002L, 0x0201001841002000L, 0x4100080080801000L, 
+		0x4540040080800800L, 0x0000800400800200L, 0x9281800100808200L, 
+		0x8004048102000854L, 0x4420802040008006L, 0x0880500020004002L, 
+		0x0801200241050010L, 0x8400080010008080L, 0x0008000500090010L, 
+		0x0082009084020008L, 0x4012000108020004L, 0x9000104D08860004L, 
+		0x2004204114800100L, 0x0148802112400300L, 0x0202842000100880L, 
+		0x001B080080900080L, 0x001A002008100600L, 0x0004008004020080L, 
+		0x5181000600040300L, 0x0000044401128A00L, 0x8044110480002441L, 
+		0x1023012082044112L, 0x00804080200A0012L, 0x000420310A004A42L, 
+		0x0023001004020801L, 0x0882001008040102L, 0x000230088118020CL, 
+		0x0000019025040042L
+	};
+
+	/**
+	 * Magic number of each square for bishops
+	 */
+	private static final long[] bishopMagics = {
+		0x1010220204082A00L, 0x80E0020202002804L, 0x2008480104200020L, 
+		0x000220920280002DL, 0x32040421000B0284L, 0x1002080404000400L, 
+		0x0004160892080040L, 0x2203024206204201L, 0x0002404264010200L, 
+		0x1120908408428124L, 0xB100424403002280L, 0x240008060440C288L, 
+		0x2040040420490400L, 0x0100620210040022L, 0x0400084104202028L, 
+		0x0010050080908820L, 0x0C90A04490824802L, 0x000200A008210130L, 
+		0x0C08001000204010L, 0x0008000186014480L, 0x0601044820080021L, 
+		0x0002000101013100L, 0x1400A08108080204L, 0x0250401104485410L, 
+		0x4820240810142843L, 0x0009142A20182200L, 0x0848140048440020L, 
+		0x2020120000400440L, 0x0108840200802003L, 0x0009070082009492L, 
+		0x020C0C0038424245L, 0xCA44005808210410L, 0x8011212000500404L, 
+		0x2028840510101008L, 0x0004042A00041400L, 0x0624020080980080L, 
+		0x1820410040840040L, 0x2201004202050100L, 0x402A088A24040224L, 
+		0x0242061040002400L, 0x90020202400821A0L, 0x00C9009004E01002L, 
+		0x58C2060202023100L, 0x0000012214040800L, 0x0210846810100200L, 
+		0x0004208081010200L, 0x01A4108404442100L, 0x8054082C80280106L, 
+		0x0004144904104208L, 0x00324C0A11104000L, 0x1000020231040100L, 
+		0x2080001042020004L, 0x0544021020288104L, 0x1103501408083020L, 
+		0x4010451004960002L, 0x003010091C44902CL, 0x0102402884202000L, 
+		0x0480804C00841086L, 0x04602C8602210400L, 0x0000004000420200L, 
+		0x0040000020442C18L, 0x4483804089094100L, 0x80000B0248020400L, 
+		0x0045010808008680L
+	};
+
+	/**
+	 * Right shift of the magic product of each square for rooks
+	 */
+	private static final int[] rookShifts = new int[64];
+
+	/**
+	 * Right shift of the magic product of each square for bishops
+	 */
+	private static final int[] bishopShifts = new int[64];
+
+	/**
+	 * Rook attack sets of each square, indexed by the magic index
+	 */
+	private static final long[][] rookTable = new long[64][];
+
+	/**
+	 * Bishop attack sets of each square, indexed by the magic index
+	 */
+	private static final long[][] bishopTable = new long[64][];
+
+	/**
+	 * State of the random number generator used to search magic numbers
+	 */
+	private static long seed = 0x2545F4914F6CDD1DL;
+
+	static {
+		for (int sq = 0; sq < 64; ++sq) {
+			knightTable[sq] = stepAttacks(sq, knightSteps);
+			kingTable[sq] = stepAttacks(sq, kingSteps);
+			pawnTable[Position.WHITE][sq] = stepPawnAttacks(Position.WHITE, sq);
+			pawnTable[Position.BLACK][sq] = stepPawnAttacks(Position.BLACK, sq);
+			rookMasks[sq] = blockerMask(sq, rookDirections);
+			bishopMasks[sq] = blockerMask(sq, bishopDirections);
+			rookShifts[sq] = 64 - Long.bitCount(rookMasks[sq]);
+			bishopShifts[sq] = 64 - Long.bitCount(bishopMasks[sq]);
+			rookTable[sq] = new long[1 << Long.bitCount(rookMasks[sq])];
+			bishopTable[sq] = new long[1 << Long.bitCount(bishopMasks[sq])];
+			if (!fillTable(sq, rookMagics[sq], rookMasks[sq], rookShifts[sq], rookTable[sq], rookDirections)) {
+				rookMagics[sq] = findMagic(
+					sq, rookMasks[sq], rookShifts[sq], rookTable[sq], rookDirections
+				);
+			}
+			if (!fillTable(
+				sq, bishopMagics[sq], bishopMasks[sq], bishopShifts[sq], bishopTable[sq], bishopDirections
+			)) {
+				bishopMagics[sq] = findMagic(
+					sq, bishopMasks[sq], bishopShifts[sq], bishopTable[sq], bishopDirections
+				);
+			}
+		}
+		assert selfCheck() : "Sliding attack tables don't match the ray walkers";
+	}
+
+	/**
+	 * @param sq The square of the knight
+	 * @return The squares attacked by a knight on "sq"
+	 */
+	public static long knightAttacks(int sq) {
+		return knightTable[sq];
+	}
+
+	/**
+	 * @param sq The square of the king
+	 * @return The squares attacked by a king on "sq"
+	 */
+	public static long kingAttacks(int sq) {
+		return kingTable[sq];
+	}
+
+	/**
+	 * @param color The color of the pawn
+	 * @param sq The square of the pawn
+	 * @return The squares attacked by a pawn of "color" on "sq"
+	 */
+	public static long pawnAttacks(int color, int sq) {
+		return pawnTable[color][sq];
+	}
+
+	/**
+	 * Computes the squares attacked by a pawn, used to fill the pawn table
+	 * @param color The color of the pawn
+	 * @param sq The square of the pawn
+	 * @return The attacked squares
+	 */
+	private static long stepPawnAttacks(int color, int sq) {
+		int x = Position.rowOf(sq) + (color == Position.WHITE ? -1 : 1);
+		int y = Position.columnOf(sq);
+		long r = 0L;
+		if (x < 0 || x > 7) {
+			return r;
+		}
+		if (y > 0) {
+			r |= 1L << Position.square(x, y - 1);
+		}
+		if (y < 7) {
+			r |= 1L << Position.square(x, y + 1);
+		}
+		return r;
+	}
+
+	/**
+	 * @param sq The square of the rook
+	 * @param occupied The occupied squares
+	 * @return The squares attacked by a rook on "sq"
+	 */
+	public static long rookAttacks(int sq, long occupied) {
+		int i = (int)(((occupied & rookMasks[sq]) * rookMagics[sq]) >>> rookShifts[sq]);
+		return rookTable[sq][i];
+	}
+
+	/**
+	 * @param sq The square of the bishop
+	 * @param occupied The occupied squares
+	 * @return The squares attacked by a bishop on "sq"
+	 */
+	public static long bishopAttacks(int sq, long occupied) {
+		int i = (int)(((occupied & bishopMasks[sq]) * bishopMagics[sq]) >>> bishopShifts[sq]);
+		return bishopTable[sq][i];
+	}
+
+	/**
+	 * @param sq The square of the queen
+	 * @param occupied The occupied squares
+	 * @return The squares attacked by a queen on "sq"
+	 */
+	public static long queenAttacks(int sq, long occupied) {
+		return rookAttacks(sq, occupied) | bishopAttacks(sq, occupied);
+	}
+
+	/**
+	 * Collects the squares one step away from "sq", used to fill the tables
+	 * @param sq The square of the piece
+	 * @param steps The rank and file steps of the piece
+	 * @return The attacked squares
+	 */
+	private static long stepAttacks(int sq, int[][] steps) {
+		int x = Position.rowOf(sq);
+		int y = Position.columnOf(sq);
+		long r = 0L;
+		for (int[] step : steps) {
+			int _x = x + step[0];
+			int _y = y + step[1];
+			if (_x >= 0 && _x <= 7 && _y >= 0 && _y <= 7) {
+				r |= 1L << Position.square(_x, _y);
+			}
+		}
+		return r;
+	}
+
+	/**
+	 * Walks every ray from "sq" until the edge of the board or the first
+	 * occupied square, which is included
+	 * @param sq The square of the piece
+	 * @param occupied The occupied squares
+	 * @param directions The rank and file directions of the rays
+	 * @return The attacked squares
+	 */
+	private static long slidingAttacks(int sq, long occupied, int[][] directions) {
+		int x = Position.rowOf(sq);
+		int y = Position.columnOf(sq);
+		long r = 0L;
+		for (int[] d : directions) {
+			int _x = x + d[0];
+			int _y = y + d[1];
+			while (_x >= 0 && _x <= 7 && _y >= 0 && _y <= 7) {
+				long bit = 1L << Position.square(_x, _y);
+				r |= bit;
+				if ((occupied & bit) != 0) {
+					break;
+				}
+				_x += d[0];
+				_y += d[1];
+			}
+		}
+		return r;
+	}
+
+	/**
+	 * Collects the squares of the rays from "sq" that can block a sliding piece.
+	 * The last square of each ray never blocks anything behind it, so it's left out.
+	 * @param sq The square of the piece
+	 * @param directions The rank and file directions of the rays
+	 * @return The blocker mask
+	 */
+	private static long blockerMask(int sq, int[][] directions) {
+		int x = Position.rowOf(sq);
+		int y = Position.columnOf(sq);
+		long r = 0L;
+		for (int[] d : directions) {
+			int _x = x + d[0];
+			int _y = y + d[1];
+			while (
+				_x + d[0] >= 0 && _x + d[0] <= 7 && _y + d[1] >= 0 && _y + d[1] <= 7
+			) {
+				r |= 1L << Position.square(_x, _y);
+				_x += d[0];
+				_y += d[1];
+			}
+		}
+		return r;
+	}
+
+	/**
+	 * Fills the attack table of "sq" using the given magic number
+	 * @param sq The square of the piece
+	 * @param magic The magic number to try
+	 * @param mask The blocker mask of the square
+	 * @param shift The right shift of the magic product
+	 * @param table The attack table of the square to fill
+	 * @param directions The rank and file directions of the rays
+	 * @return false if two occupancies with different attacks share an index
+	 */
+	private static boolean fillTable(
+		int sq, long magic, long mask, int shift, long[] table, int[][] directions
+	) {
+		// A sliding piece always attacks some square, so 0 marks an unused entry
+		Arrays.fill(table, 0L);
+		// Walk every subset of the mask (carry rippler)
+		long subset = 0L;
+		do {
+			long attacks = slidingAttacks(sq, subset, directions);
+			int index = (int)((subset * magic) >>> shift);
+			if (table[index] == 0L) {
+				table[index] = attacks;
+			} else if (table[index] != attacks) {
+				return false;
+			}
+			subset = (subset - mask) & mask;
+		} while (subset != 0L);
+		return true;
+	}
+
+	/**
+	 * Searches a magic number for "sq" and fills its attack table with it
+	 * @param sq The square of the piece
+	 * @param mask The blocker mask of the square
+	 * @param shift The right shift of the magic product
+	 * @param table The attack table of the square to fill
+	 * @param directions The rank and file directions of the rays
+	 * @return The magic number
+	 */
+	private static long findMagic(int sq, long mask, int shift, long[] table, int[][] directions) {
+		while (true) {
+			long magic = nextRandom() & nextRandom() & nextRandom();
+			if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6) {
+				continue;
+			}
+			if (fillTable(sq, magic, mask, shift, table, directions)) {
+				return magic;
+			}
+		}
+	}
+
+	/**
+	 * @return The next number of the xorshift random generator
+	 */
+	private static long nextRandom() {
+		seed ^= seed >>> 12;
+		seed ^= seed << 25;
+		seed ^= seed >>> 27;
+		return seed * 2685821657736338717L;
+	}
+
+	/**
+	 * Compares the magic lookups against the ray walkers for every square and
+	 * a fixed set of random occupancies. Runs at startup when assertions are on.
+	 * @return true if every lookup matched
+	 */
+	public static boolean selfCheck() {
+		long state = 0x9E3779B97F4A7C15L;
+		for (int i = 0; i < 4096; ++i) {
+			state ^= state << 13;
+			state ^= state >>> 7;
+			state ^= state << 17;
+			// Sparse and dense boards
+			long occupied = (i & 1) == 0 ? state & (state >>> 21) : state;
+			for (int sq = 0; sq < 64; ++sq) {
+				if (rookAttacks(sq, occupied) != slidingAttacks(sq, occupied, rookDirections)) {
+					return false;
+				}
+				if (bishopAttacks(sq, occupied) != slidingAttacks(sq, occupied, bishopDirections)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+}
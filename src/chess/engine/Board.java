@@ -30,6 +30,47 @@ public class Board {
 	 */
 	Piece[][] board;
 
+	/**
+	 * Bitboard copy of the game, kept in sync with "board" on every move
+	 */
+	Position position;
+
+	/**
+	 * Number of moves on the undo stack of "makeMove"
+	 */
+	int ply;
+
+	/**
+	 * Undo stack: the piece that made each move (the pawn for promotions)
+	 */
+	final Piece[] movedStack = new Piece[Position.MAX_PLY];
+
+	/**
+	 * Undo stack: the piece captured by each move, or null
+	 */
+	final Piece[] capturedStack = new Piece[Position.MAX_PLY];
+
+	/**
+	 * Undo stack: "hasMoved" flag of the moving piece before each move
+	 */
+	final boolean[] hasMovedStack = new boolean[Position.MAX_PLY];
+
+	/**
+	 * Undo stack: "justMoved2Squares" flag of the moving piece before each move
+	 */
+	final boolean[] justMoved2SquaresStack = new boolean[Position.MAX_PLY];
+
+	/**
+	 * Undo stack: pawn whose "justMoved2Squares" flag was cleared by each move, or null
+	 */
+	final Pawn[] enpassantPawnStack = new Pawn[Position.MAX_PLY];
+
+	/**
+	 * Pieces created by promotions at each ply, reused so that making the
+	 * same promotion again doesn't allocate
+	 */
+	final Piece[] promotedCache = new Piece[Position.MAX_PLY];
+
 	/**
 	 * Constructor
 	 * @param e Instance of Engine
@@ -81,8 +122,177 @@ public class Board {
 				board[i][7] = new Rook  ("wR", true, false, i, 7, e);
 			}
 		}
+		position = new Position();
+		position.load(board, true);
 	}	
 	
+	/**
+	 * Constructor, places the pieces of a FEN position. Castling rights are
+	 * stored as the "hasMoved" flags of kings and rooks, and the en passant
+	 * target as the "justMoved2Squares" flag of the pawn that can be captured.
+	 * @param e Instance of Engine
+	 * @param fen The FEN string of the position
+	 */
+	public Board(Engine e, String fen) {
+		this.engine = e;
+		board = new Piece[8][8];
+		position = new Position();
+		loadFen(fen);
+	}
+
+	/**
+	 * Replaces the pieces with those of a FEN position and clears the undo
+	 * stack. The board array and the bitboards are reused, so a board can be
+	 * loaded again for every game of a batch job. The FEN is checked before
+	 * anything is replaced, a rejected FEN leaves the board unchanged.
+	 * @param fen The FEN string of the position
+	 * @throws IllegalArgumentException If the FEN is malformed or its
+	 * position can't be reached: a side doesn't have exactly one king, a
+	 * piece code has more than Position.LIST_SIZE pieces, a pawn is on the
+	 * first or last rank, the side not to move is in check or no pawn can
+	 * have just passed the en passant square
+	 */
+	public void loadFen(String fen) {
+		String[] fields = fen.trim().split("\\s+");
+		if (fields.length < 2 || !(fields[1].equals("w") || fields[1].equals("b"))) {
+			throw new IllegalArgumentException("Invalid FEN: " + fen);
+		}
+		boolean whiteToMove = fields[1].equals("w");
+
+		// 1. Piece placement, from rank 8 to rank 1
+		Piece[][] placed = new Piece[8][8];
+		long[] bitboards = new long[12];
+		int x = 0, y = 0;
+		for (char c : fields[0].toCharArray()) {
+			if (c == '/') {
+				if (y != 8) {
+					throw new IllegalArgumentException("Invalid FEN: " + fen);
+				}
+				++x;
+				y = 0;
+			} else if (c >= '1' && c <= '8') {
+				y += c - '0';
+			} else {
+				int type = "pnbrqk".indexOf(Character.toLowerCase(c));
+				if (type < 0 || x > 7 || y > 7 || (type == Position.PAWN && (x == 0 || x == 7))) {
+					throw new IllegalArgumentException("Invalid FEN: " + fen);
+				}
+				int color = Character.isUpperCase(c) ? Position.WHITE : Position.BLACK;
+				int code = Position.code(color, type);
+				// The piece lists of the position hold LIST_SIZE pieces per code
+				if (Long.bitCount(bitboards[code]) == Position.LIST_SIZE) {
+					throw new IllegalArgumentException("Invalid FEN: " + fen);
+				}
+				bitboards[code] |= 1L << Position.square(x, y);
+				Piece p = createPiece(code, x, y);
+				// Pawns off their starting rank have moved
+				if (type == Position.PAWN && x != (color == Position.WHITE ? 6 : 1)) {
+					p.moved();
+				}
+				placed[x][y] = p;
+				++y;
+			}
+		}
+		if (x != 7 || y != 8
+			|| Long.bitCount(bitboards[Position.code(Position.WHITE, Position.KING)]) != 1
+			|| Long.bitCount(bitboards[Position.code(Position.BLACK, Position.KING)]) != 1
+			|| isKingAttacked(bitboards, whiteToMove ? Position.BLACK : Position.WHITE)) {
+			throw new IllegalArgumentException("Invalid FEN: " + fen);
+		}
+
+		// 2. En passant target, the pawn in front of it just moved 2 squares
+		// from the square behind it, both squares it passed are empty
+		Pawn passed = null;
+		String ep = fields.length > 3 ? fields[3] : "-";
+		if (!ep.equals("-")) {
+			if (
+				ep.length() != 2 || ep.charAt(0) < 'a' || ep.charAt(0) > 'h'
+				|| ep.charAt(1) != (whiteToMove ? '6' : '3')
+			) {
+				throw new IllegalArgumentException("Invalid FEN: " + fen);
+			}
+			int epX = mapRankToX(ep.charAt(1));
+			int epY = mapFileToY(ep.charAt(0));
+			int pawnX = whiteToMove ? epX + 1 : epX - 1;
+			int fromX = whiteToMove ? epX - 1 : epX + 1;
+			Piece p = placed[pawnX][epY];
+			if (
+				!(p instanceof Pawn) || p.isWhite() == whiteToMove
+				|| placed[epX][epY] != null || placed[fromX][epY] != null
+			) {
+				throw new IllegalArgumentException("Invalid FEN: " + fen);
+			}
+			passed = (Pawn)p;
+		}
+
+		// 3. Move clocks
+		int halfmoveClock = 0, fullmoveNumber = 1;
+		if (fields.length > 5) {
+			halfmoveClock = Integer.parseInt(fields[4]);
+			fullmoveNumber = Integer.parseInt(fields[5]);
+		}
+
+		// The FEN is valid, replace the pieces and clear the undo stack
+		for (int i = 0; i < 8; ++i) {
+			System.arraycopy(placed[i], 0, board[i], 0, 8);
+		}
+		while (ply > 0) {
+			--ply;
+			movedStack[ply] = null;
+			capturedStack[ply] = null;
+			enpassantPawnStack[ply] = null;
+		}
+
+		// 4. Castling rights, kings and rooks without a right have moved
+		String castling = fields.length > 2 ? fields[2] : "-";
+		markMoved(7, 4, castling.indexOf('K') < 0 && castling.indexOf('Q') < 0);
+		markMoved(7, 7, castling.indexOf('K') < 0);
+		markMoved(7, 0, castling.indexOf('Q') < 0);
+		markMoved(0, 4, castling.indexOf('k') < 0 && castling.indexOf('q') < 0);
+		markMoved(0, 7, castling.indexOf('k') < 0);
+		markMoved(0, 0, castling.indexOf('q') < 0);
+		if (passed != null) {
+			passed.setJustMoved2Squares(true);
+		}
+
+		position.load(board, whiteToMove);
+		position.halfmoveClock = halfmoveClock;
+		position.fullmoveNumber = fullmoveNumber;
+	}
+
+	/**
+	 * Method that determines if the king of "color" is attacked by the other side
+	 * @param bitboards The squares of the pieces of each piece code
+	 * @param color The color of the king
+	 * @return true|false
+	 */
+	private static boolean isKingAttacked(long[] bitboards, int color) {
+		int them = color ^ 1;
+		int king = Long.numberOfTrailingZeros(bitboards[Position.code(color, Position.KING)]);
+		long occupied = 0L;
+		for (long b : bitboards) {
+			occupied |= b;
+		}
+		long queens = bitboards[Position.code(them, Position.QUEEN)];
+		return (Attacks.pawnAttacks(color, king) & bitboards[Position.code(them, Position.PAWN)]) != 0
+			|| (Attacks.knightAttacks(king) & bitboards[Position.code(them, Position.KNIGHT)]) != 0
+			|| (Attacks.kingAttacks(king) & bitboards[Position.code(them, Position.KING)]) != 0
+			|| (Attacks.bishopAttacks(king, occupied) & (bitboards[Position.code(them, Position.BISHOP)] | queens)) != 0
+			|| (Attacks.rookAttacks(king, occupied) & (bitboards[Position.code(them, Position.ROOK)] | queens)) != 0;
+	}
+
+	/**
+	 * Sets the "hasMoved" flag of the piece at rank "x" and file "y" if there is one
+	 * @param x The rank of the piece
+	 * @param y The file of the piece
+	 * @param moved The value of the flag
+	 */
+	private void markMoved(int x, int y, boolean moved) {
+		if (board[x][y] != null && moved) {
+			board[x][y].moved();
+		}
+	}
+
 	/**
 	 * @param fileRank 2 letter string that contains "[file][rank] respectively
 	 * @return The piece found at "fileRank"
@@ -99,13 +309,36 @@ public class Board {
 	public Piece[][] getBoard() {
 		return board;
 	}
+
+	/**
+	 * @return The bitboard representation of the game
+	 */
+	public Position getPosition() {
+		return position;
+	}
 	
+	/**
+	 * @return The FEN string of the current position
+	 */
+	public String toFen() {
+		return position.toFen();
+	}
+
+	/**
+	 * @return The Zobrist hash of the current position, the same for the
+	 * same pieces, side to move, castling rights and en passant file
+	 */
+	public long getHash() {
+		return position.hash;
+	}
+
 	/**
 	 * @param source The piece that needs to be moved
 	 * @param sourcePos "[file][rank]" string that contains the source position
 	 * @param targetPos "[file][rank]" string that contains the target position
 	 */
 	public void movePiece(Piece source, String sourcePos, String targetPos) {
+		position.applyMove(toSquare(sourcePos), toSquare(targetPos));
 		replacePiece(targetPos, source);
 		replacePiece(sourcePos, null);
 		source.updatePosition();
@@ -135,6 +368,157 @@ public class Board {
 		}
 	}
 	
+	/**
+	 * Plays a packed move on the board array, the pieces and the bitboards. The
+	 * previous state is kept on a preallocated undo stack so moves can be nested
+	 * and taken back in reverse order with "unmakeMove".
+	 * @param move The packed move
+	 */
+	public void makeMove(int move) {
+		int from = Move.from(move);
+		int to = Move.to(move);
+		int flag = Move.flag(move);
+		Piece source = board[Position.rowOf(from)][Position.columnOf(from)];
+		int capturedSq = Position.capturedSquare(move, position.sideToMove);
+		int x = Position.rowOf(to);
+		int y = Position.columnOf(to);
+
+		movedStack[ply] = source;
+		hasMovedStack[ply] = source.hasMoved();
+		justMoved2SquaresStack[ply] = source instanceof Pawn && ((Pawn)source).justMoved2Squares();
+		capturedStack[ply] = Move.isCapture(move)
+			? board[Position.rowOf(capturedSq)][Position.columnOf(capturedSq)] : null;
+		enpassantPawnStack[ply] = null;
+
+		// Only the pawn that can be captured en passant keeps its flag
+		int ep = position.enPassantSquare;
+		if (ep != Position.NO_SQUARE) {
+			int behind = position.sideToMove == Position.WHITE ? ep + 8 : ep - 8;
+			Piece p = board[Position.rowOf(behind)][Position.columnOf(behind)];
+			if (p instanceof Pawn && ((Pawn)p).justMoved2Squares()) {
+				((Pawn)p).clearMove2SquaresFlag();
+				enpassantPawnStack[ply] = (Pawn)p;
+			}
+		}
+		position.makeMove(move);
+
+		if (capturedStack[ply] != null) {
+			board[Position.rowOf(capturedSq)][Position.columnOf(capturedSq)] = null;
+		}
+		board[Position.rowOf(from)][Position.columnOf(from)] = null;
+		source.moved();
+		Piece placed = source;
+		if (Move.isPromotion(move)) {
+			placed = promotedPiece(position.squares[to], x, y);
+			placed.moved();
+		} else if (flag == Move.DOUBLE_PAWN_PUSH) {
+			((Pawn)source).setJustMoved2Squares(true);
+		} else if (flag == Move.KING_CASTLE) {
+			moveRook(x, y + 1, y - 1);
+		} else if (flag == Move.QUEEN_CASTLE) {
+			moveRook(x, y - 2, y + 1);
+		}
+		board[x][y] = placed;
+		placed.setPosition(x, y);
+		++ply;
+	}
+
+	/**
+	 * Takes back the last move played with "makeMove"
+	 */
+	public void unmakeMove() {
+		--ply;
+		int move = position.moveStack[position.ply - 1];
+		int from = Move.from(move);
+		int to = Move.to(move);
+		int flag = Move.flag(move);
+		int x = Position.rowOf(to);
+		int y = Position.columnOf(to);
+		Piece source = movedStack[ply];
+
+		position.unmakeMove();
+		board[x][y] = null;
+		board[Position.rowOf(from)][Position.columnOf(from)] = source;
+		source.setPosition(Position.rowOf(from), Position.columnOf(from));
+		source.setMoved(hasMovedStack[ply]);
+		if (source instanceof Pawn) {
+			((Pawn)source).setJustMoved2Squares(justMoved2SquaresStack[ply]);
+		}
+		if (flag == Move.KING_CASTLE) {
+			moveRook(x, y - 1, y + 1);
+			board[x][y + 1].setMoved(false);
+		} else if (flag == Move.QUEEN_CASTLE) {
+			moveRook(x, y + 1, y - 2);
+			board[x][y - 2].setMoved(false);
+		}
+		Piece captured = capturedStack[ply];
+		if (captured != null) {
+			int capturedSq = Position.capturedSquare(move, position.sideToMove);
+			board[Position.rowOf(capturedSq)][Position.columnOf(capturedSq)] = captured;
+			capturedStack[ply] = null;
+		}
+		if (enpassantPawnStack[ply] != null) {
+			enpassantPawnStack[ply].setJustMoved2Squares(true);
+			enpassantPawnStack[ply] = null;
+		}
+		movedStack[ply] = null;
+	}
+
+	/**
+	 * Moves the castling rook along rank "x"
+	 * @param x The rank of the rook
+	 * @param fromY The file the rook is on
+	 * @param toY The file the rook moves to
+	 */
+	private void moveRook(int x, int fromY, int toY) {
+		Piece rook = board[x][fromY];
+		board[x][fromY] = null;
+		board[x][toY] = rook;
+		rook.setPosition(x, toY);
+		rook.moved();
+	}
+
+	/**
+	 * @param code The piece code of the promoted piece
+	 * @param x The rank of the promoted piece
+	 * @param y The file of the promoted piece
+	 * @return A piece of the given code, reused from an earlier promotion when possible
+	 */
+	private Piece promotedPiece(int code, int x, int y) {
+		Piece p = promotedCache[ply];
+		if (Position.pieceCode(p) != code) {
+			p = createPiece(code, x, y);
+			promotedCache[ply] = p;
+		}
+		return p;
+	}
+
+	/**
+	 * Creates a new piece for the 2D board array
+	 * @param code The piece code
+	 * @param x The rank of the piece
+	 * @param y The file of the piece
+	 * @return The new piece
+	 */
+	public Piece createPiece(int code, int x, int y) {
+		boolean isWhite = Position.colorOf(code) == Position.WHITE;
+		String name = (isWhite ? "w" : "b") + "pNBRQK".charAt(Position.typeOf(code));
+		switch (Position.typeOf(code)) {
+			case Position.PAWN:
+				return new Pawn(name, isWhite, !isWhite, x, y, engine);
+			case Position.KNIGHT:
+				return new Knight(name, isWhite, !isWhite, x, y, engine);
+			case Position.BISHOP:
+				return new Bishop(name, isWhite, !isWhite, x, y, engine);
+			case Position.ROOK:
+				return new Rook(name, isWhite, !isWhite, x, y, engine);
+			case Position.QUEEN:
+				return new Queen(name, isWhite, !isWhite, x, y, engine);
+			default:
+				return new King(name, isWhite, !isWhite, x, y, engine);
+		}
+	}
+
 	/**
 	 * @param fileRank The position of the square on the board to replace
 	 * @param p The piece that will be placed at "fileRank"
@@ -145,6 +529,27 @@ public class Board {
 		board[mapRankToX(r)][mapFileToY(f)] = p;
 	}
 	
+	/**
+	 * Method that determines if a square is attacked, using the attack maps
+	 * kept up to date on every move
+	 * @param x The rank of the square
+	 * @param y The file of the square
+	 * @param byWhite Flag to determine if the attacking side is white
+	 * @return true|false
+	 */
+	public boolean isSquareAttacked(int x, int y, boolean byWhite) {
+		int color = byWhite ? Position.WHITE : Position.BLACK;
+		return position.isSquareAttacked(Position.square(x, y), color);
+	}
+
+	/**
+	 * @param fileRank 2 letter string that contains "[file][rank] respectively
+	 * @return The square index of "fileRank" used by Position
+	 */
+	public int toSquare(String fileRank) {
+		return Position.square(mapRankToX(fileRank.charAt(1)), mapFileToY(fileRank.charAt(0)));
+	}
+
 	/**
 	 * @param r The character that represents "rank" that needs to be mapped to int
 	 * @return The integer resulting from the mapping of "r" to int
@@ -163,33 +568,63 @@ public class Board {
 		return y;
 	}
 	
+	/**
+	 * Fills "out" with the pieces of one side, taken from the piece lists
+	 * of Position instead of scanning all 64 squares
+	 * @param white Flag to determine if the white pieces are wanted
+	 * @param out The buffer for the pieces, 16 entries are always enough
+	 * @return The number of pieces written
+	 */
+	public int getPieces(boolean white, Piece[] out) {
+		int n = 0;
+		for (int type = Position.PAWN; type <= Position.KING; ++type) {
+			n = getPieces(white, type, out, n);
+		}
+		return n;
+	}
+
+	/**
+	 * Fills "out" with the pieces of one side and type
+	 * @param white Flag to determine if the white pieces are wanted
+	 * @param type The piece type (see Position)
+	 * @param out The buffer for the pieces
+	 * @param start The first index of "out" to write to
+	 * @return The index after the last piece written
+	 */
+	public int getPieces(boolean white, int type, Piece[] out, int start) {
+		int color = white ? Position.WHITE : Position.BLACK;
+		int count = position.pieceCount(color, type);
+		int n = start;
+		for (int i = 0; i < count; ++i) {
+			int sq = position.pieceSquare(color, type, i);
+			out[n++] = board[Position.rowOf(sq)][Position.columnOf(sq)];
+		}
+		return n;
+	}
+
 	/**
 	 * @return The white king instance
 	 */
 	public Piece getWhiteKing() {
-		Piece k = null;
-		for (Piece[] ps : board) {
-			for (Piece p : ps) {
-				if (p != null && p.isKing() && p.isWhite()) {
-					return p;
-				}
-			}
-		}
-		return k;
+		return getKing(Position.WHITE);
 	}
 
 	/**
 	 * @return The black king instance
 	 */
 	public Piece getBlackKing() {
-		Piece k = null;
-		for (Piece[] ps : board) {
-			for (Piece p : ps) {
-				if (p != null && p.isKing() && p.isBlack()) {
-					return p;
-				}
-			}
+		return getKing(Position.BLACK);
+	}
+
+	/**
+	 * @param color The color of the king
+	 * @return The king of "color", found from the king square tracked by Position
+	 */
+	private Piece getKing(int color) {
+		int sq = position.kingSquare(color);
+		if (sq == Position.NO_SQUARE) {
+			return null;
 		}
-		return k;
+		return board[Position.rowOf(sq)][Position.columnOf(sq)];
 	}
 }
@@ -0,0 +1,159 @@
+package chess.engine;
+
+import java.io.PrintStream;
+import chess.pieces.Piece;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * Draws the board into one reusable buffer and writes it to the stream
+ * with a single call. Rendering can be turned off, or limited to the
+ * squares that changed since the last board on ANSI terminals.
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public class BoardRenderer {
+	/**
+	 * Mode that draws the whole board every time
+	 */
+	public static final int FULL = 0;
+
+	/**
+	 * Mode that draws nothing
+	 */
+	public static final int NONE = 1;
+
+	/**
+	 * Mode that moves the cursor with ANSI escape codes and only redraws the
+	 * squares that changed
+	 */
+	public static final int ANSI_DIFF = 2;
+
+	/**
+	 * Text of the file labels under the board
+	 */
+	private static final String fileLabels = " a  b  c  d  e  f  g  h";
+
+	/**
+	 * Line separator of the platform, the same "println" writes
+	 */
+	private static final String newLine = System.lineSeparator();
+
+	/**
+	 * The stream the board is written to
+	 */
+	private final PrintStream out;
+
+	/**
+	 * One of FULL, NONE or ANSI_DIFF
+	 */
+	private final int mode;
+
+	/**
+	 * Buffer the board is drawn into, reused for every board
+	 */
+	private final StringBuilder sb = new StringBuilder(256);
+
+	/**
+	 * Text of each square on the last board drawn, used by ANSI_DIFF
+	 */
+	private final String[] last = new String[64];
+
+	/**
+	 * Flag to determine if a full board was drawn yet in ANSI_DIFF mode
+	 */
+	private boolean drawn;
+
+	/**
+	 * Constructor
+	 * @param out The stream the board is written to
+	 * @param mode One of FULL, NONE or ANSI_DIFF
+	 */
+	public BoardRenderer(PrintStream out, int mode) {
+		this.out = out;
+		this.mode = mode;
+	}
+
+	/**
+	 * Draws the board
+	 * @param board The 2D array that holds the chess board and all pieces
+	 */
+	public void render(Piece[][] board) {
+		if (mode == NONE) {
+			return;
+		}
+		sb.setLength(0);
+		if (mode == ANSI_DIFF && drawn) {
+			appendChanges(board);
+		} else {
+			if (mode == ANSI_DIFF) {
+				// Clear the screen and start at the top left corner
+				sb.append("\033[2J\033[H");
+				drawn = true;
+			}
+			appendBoard(board);
+		}
+		out.print(sb);
+		out.flush();
+	}
+
+	/**
+	 * Draws every square followed by the rank labels, then the file labels
+	 * @param board The 2D array that holds the chess board and all pieces
+	 */
+	private void appendBoard(Piece[][] board) {
+		for (int i = 0; i < 8; ++i) {
+			for (int j = 0; j < 8; ++j) {
+				String square = squareText(board, i, j);
+				last[i * 8 + j] = square;
+				sb.append(square).append(' ');
+			}
+			sb.append(8 - i).append(newLine);
+		}
+		sb.append(fileLabels);
+	}
+
+	/**
+	 * Draws the squares that changed since the last board, then moves the
+	 * cursor to the end of the file labels and clears the old prompts
+	 * @param board The 2D array that holds the chess board and all pieces
+	 */
+	private void appendChanges(Piece[][] board) {
+		for (int i = 0; i < 8; ++i) {
+			for (int j = 0; j < 8; ++j) {
+				String square = squareText(board, i, j);
+				if (!square.equals(last[i * 8 + j])) {
+					last[i * 8 + j] = square;
+					cursor(i + 1, j * 3 + 1);
+					sb.append(square);
+				}
+			}
+		}
+		cursor(9, fileLabels.length() + 1);
+		sb.append("\033[J");
+	}
+
+	/**
+	 * Appends the ANSI code that moves the cursor
+	 * @param line The terminal line, starting at 1
+	 * @param column The terminal column, starting at 1
+	 */
+	private void cursor(int line, int column) {
+		sb.append("\033[").append(line).append(';').append(column).append('H');
+	}
+
+	/**
+	 * @param board The 2D array that holds the chess board and all pieces
+	 * @param i The row number
+	 * @param j The column number
+	 * @return The name of the piece on the square, or the empty square pattern
+	 */
+	private static String squareText(Piece[][] board, int i, int j) {
+		if (board[i][j] != null) {
+			return board[i][j].getName();
+		}
+		return (i + j) % 2 == 0 ? "  " : "##";
+	}
+}
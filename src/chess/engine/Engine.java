@@ -1,16 +1,11 @@
 package chess.engine;
 
-import java.util.List;
-
 import chess.pieces.Bishop;
-import chess.pieces.Coord;
-import chess.pieces.King;
 import chess.pieces.Knight;
 import chess.pieces.Pawn;
 import chess.pieces.Piece;
 import chess.pieces.Queen;
 import chess.pieces.Rook;
-import chess.pieces.SharedRules;
 
 /**
  * Rutgers New Brunswick
@@ -31,10 +26,15 @@ public class Engine {
 	Board board;
 
 	/**
-	 * Holds the instance of UI
+	 * Holds the instance of UI, only created when the game is played on the console
 	 */
 	UI ui;
 	
+	/**
+	 * How the console game draws the board, one of the BoardRenderer modes
+	 */
+	int renderMode = BoardRenderer.FULL;
+
 	/**
 	 * Holds the letter that represents the Piece the pawn must be promoted to
 	 * 'x' means default promotion (i.e. Queen)
@@ -97,14 +97,35 @@ public class Engine {
 	boolean blackWinsByCheckmate;
 	
 	/**
-	 * Holds instance of white Piece attacking black King
+	 * Value that represents if the player to move has no legal move and is
+	 * not in check, the game is a draw
+	 */
+	boolean stalemate;
+
+	/**
+	 * Search of the board, only created when the engine is asked for a move
+	 */
+	Search search;
+
+	/**
+	 * Color the computer plays in the console game, Position.EMPTY for none
 	 */
-	Piece whiteAttacker;
+	int computerColor = Position.EMPTY;
 
 	/**
-	 * Holds instance of black Piece attacking white King
+	 * Time the computer thinks about each move in milliseconds
 	 */
-	Piece blackAttacker;
+	long computerMillis = 1000L;
+
+	/**
+	 * Buffer for the moves generated to look for a legal move
+	 */
+	private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+	/**
+	 * Buffer for the pieces of one side, filled from the board piece lists
+	 */
+	private final Piece[] pieces = new Piece[16];
 	
 	/**
 	 * Constructor
@@ -112,79 +133,199 @@ public class Engine {
 	public Engine() {
 		this.board = new Board(this);
 		this.vals = new Validations(this, board);
-		this.ui = new UI(board.board, vals, this);
+	}
+
+	/**
+	 * Constructor, starts the game from a FEN position
+	 * @param fen The FEN string of the position
+	 */
+	public Engine(String fen) {
+		this.board = new Board(this, fen);
+		this.vals = new Validations(this, board);
+		this.whiteTurn = board.position.sideToMove() == Position.WHITE;
+		updateCheck(whiteTurn ? Position.WHITE : Position.BLACK);
+		checkIfGameEnded(whiteKingInCheck || blackKingInCheck);
 	}
 	
 	/**
-	 * Game execution begins here
+	 * Game execution begins here, the game is played on the console
 	 */
 	public void start() {
+		if (ui == null) {
+			ui = new UI(board.board, vals, this, renderMode);
+		}
 		ui.drawBoard();
 		
 		// Game loop
-		while (true) {
-			promotionLetter = 'x';
-			boolean terminate;
-			String input, sourcePos, targetPos;
-			Piece source, target;
-
-			// Check if checkmate
-			if (whiteTurn) {
-				if (whiteKingInCheck && !canKingBeSaved()) {
-					blackWinsByCheckmate = true;
-					break;
-				}
+		while (!getStatus().isOver()) {
+			String input;
+			if (computerColor == (whiteTurn ? Position.WHITE : Position.BLACK)) {
+				input = findBestMove(Search.MAX_DEPTH, computerMillis);
+				ui.showComputerMove(whiteTurn, input);
 			} else {
-				if (blackKingInCheck && !canKingBeSaved()) {
-					whiteWinsByCheckmate = true;
-					break;
-				}
+				input = ui.getNextMove(whiteTurn);
 			}
-
-			// TODO check if stalemate:
-			
-			// Clear "justMoved2Squares" on all opposite pawns
-			clearPawnsMove2SquaresFlag();
-
-			// Check if input is valid
-			input = ui.getNextMove(whiteTurn);
-
-			// Check if player resigned
-			terminate = didPlayerResign(input);
-			if (terminate) { break; }
-
-			// Check if player accepted draw
-			terminate = didPlayerAcceptDraw(input);
-			if (terminate) { break; }	
-				
-			// Check if input is valid
-			if (vals.isValidInput(input)) {
-				// Check if Legal move for source
-				sourcePos = input.substring(0, 2);
-				targetPos = input.substring(2, 4);
-				source = board.getPiece(sourcePos);
-				target = board.getPiece(targetPos);
-				if (!vals.isLegalMove(whiteTurn, source, target, -1, -1)) {
-					System.out.print("Illegal move, try again");
-					continue;
-				}
-			} else {
-				System.out.print("Illegal move, try again");
+			MoveResult result = submitMove(input);
+			if (!result.isLegal()) {
+				System.out.print(result.getMessage());
 				continue;
 			}
+			// Resigning and accepting a draw don't change the board
+			if (!resigned() && !drawAccepted()) {
+				ui.drawBoard();
+			}
+		}
+		// Game ended, display outcome (draw or winner)
+		ui.drawOutcome();
+	}
 
-			// Perform move and terminate program if winner exists
-			terminate = performMove(source, sourcePos, targetPos, input);
-			if (terminate) { break; }	
+	/**
+	 * Plays one input of the player to move without any console I/O. The
+	 * input uses the console syntax: "e2e4", "e7e8 N", "e2e4 draw?", "draw"
+	 * to accept a draw offer or "resign".
+	 * @param input The input of the player to move, null is illegal
+	 * @return The result of the input and the state of the game after it
+	 */
+	public MoveResult submitMove(String input) {
+		if (getStatus().isOver()) {
+			return new MoveResult(false, false, getStatus(), "Game is over");
+		}
+		if (input == null) {
+			return MoveResult.ILLEGAL;
+		}
+		input = removeWhitespace(input);
+		promotionLetter = 'x';
+		String sourcePos, targetPos;
+		Piece source, target;
 
-			// Process draw request and reset flags if needed
-			checkIfPlayerOfferedDraw(input);
+		// Clear "justMoved2Squares" on all pawns of the player to move
+		clearPawnsMove2SquaresFlag();
 
-			ui.drawBoard();
-			whiteTurn = !whiteTurn;
+		// Check if player resigned or accepted a draw
+		if (didPlayerResign(input) || didPlayerAcceptDraw(input)) {
+			return new MoveResult(true, false, getStatus(), "");
 		}
-		// Game ended, display outcome (draw or winner)
-		ui.drawOutcome();
+
+		// Check if input is valid
+		if (!vals.isValidInput(input)) {
+			return MoveResult.ILLEGAL;
+		}
+		// Check if Legal move for source
+		sourcePos = input.substring(0, 2);
+		targetPos = input.substring(2, 4);
+		source = board.getPiece(sourcePos);
+		target = board.getPiece(targetPos);
+		if (!vals.isLegalMove(whiteTurn, source, target, -1, -1)) {
+			return MoveResult.ILLEGAL;
+		}
+
+		performMove(source, sourcePos, targetPos, input);
+
+		// Process draw request and reset flags if needed
+		checkIfPlayerOfferedDraw(input);
+		whiteTurn = !whiteTurn;
+
+		// Check if checkmate or stalemate
+		boolean check = whiteTurn ? whiteKingInCheck : blackKingInCheck;
+		if (checkIfGameEnded(check)) {
+			return new MoveResult(true, check, getStatus(), check ? "Checkmate" : "Stalemate");
+		}
+		return new MoveResult(true, check, GameStatus.IN_PROGRESS, check ? "Check" : "");
+	}
+
+	/**
+	 * Sets how the console game draws the board
+	 * @param renderMode One of BoardRenderer.FULL, NONE or ANSI_DIFF
+	 */
+	public void setRenderMode(int renderMode) {
+		this.renderMode = renderMode;
+	}
+
+	/**
+	 * Lets the computer play one side of the console game
+	 * @param color Position.WHITE, Position.BLACK or Position.EMPTY for none
+	 * @param millis The time the computer thinks about each move
+	 */
+	public void setComputerPlayer(int color, long millis) {
+		this.computerColor = color;
+		this.computerMillis = millis;
+	}
+
+	/**
+	 * Searches the best move of the player to move. The board is left
+	 * unchanged, the move still has to be played with submitMove.
+	 * @param depth The deepest iteration to search
+	 * @param timeMillis The time limit in milliseconds, 0 for none
+	 * @return The move in the console syntax, i.e. "e2e4" or "e7e8Q", or
+	 * null if the player to move has no legal move
+	 */
+	public String findBestMove(int depth, long timeMillis) {
+		if (search == null) {
+			search = new Search(board.position);
+		}
+		int move = search.bestMove(depth, 0L, timeMillis);
+		return move == Move.NONE ? null : Move.toString(move);
+	}
+
+	/**
+	 * @return The search behind findBestMove, holding the nodes, speed and
+	 * principal variation of the last search, or null before the first one
+	 */
+	public Search getSearch() {
+		return search;
+	}
+
+	/**
+	 * @return The current state of the game
+	 */
+	public GameStatus getStatus() {
+		if (whiteWinsByCheckmate || blackResigned) {
+			return GameStatus.WHITE_WINS;
+		}
+		if (blackWinsByCheckmate || whiteResigned) {
+			return GameStatus.BLACK_WINS;
+		}
+		if (drawAccepted() || stalemate) {
+			return GameStatus.DRAW;
+		}
+		return GameStatus.IN_PROGRESS;
+	}
+
+	/**
+	 * Method that determines if it's white's turn
+	 * @return true|false
+	 */
+	public boolean isWhiteTurn() {
+		return whiteTurn;
+	}
+
+	/**
+	 * Method that determines if any player resigned
+	 * @return true|false
+	 */
+	private boolean resigned() {
+		return whiteResigned || blackResigned;
+	}
+
+	/**
+	 * Method that determines if any player accepted a draw
+	 * @return true|false
+	 */
+	private boolean drawAccepted() {
+		return whiteAcceptedDraw || blackAcceptedDraw;
+	}
+
+	/**
+	 * @param input The user input
+	 * @return "input" without spaces, tabs or line breaks
+	 */
+	private static String removeWhitespace(String input) {
+		for (int i = 0; i < input.length(); ++i) {
+			if (Character.isWhitespace(input.charAt(i))) {
+				return input.replaceAll("\\s+", "");
+			}
+		}
+		return input;
 	}
 	
 	/**
@@ -249,8 +390,6 @@ public class Engine {
 	 * @return true|false
 	 */
 	private boolean performMove(Piece source, String sourcePos, String targetPos, String input) {
-		blackAttacker = null;
-		whiteAttacker = null;
 		blackKingInCheck = false;
 		whiteKingInCheck = false;
 
@@ -265,153 +404,42 @@ public class Engine {
 			source = promotePawn(source);
 		}
 		
-		// Check if this move puts the opponent king in check, if so
-		// set proper flags
-		if (source.isWhite()) {
-			King bK = (King)board.getBlackKing();
-			if (source.isLegalMove(bK, bK.getX(), bK.getY())) {
-				whiteAttacker = source;
-				blackKingInCheck = true;
-			}
-		} else {
-			King wK = (King)board.getWhiteKing();
-			if (source.isLegalMove(wK, wK.getX(), wK.getY())) {
-				blackAttacker = source;
-				whiteKingInCheck = true;
-			}
-		}
+		// Check if this move puts the opponent king in check (directly or by
+		// uncovering another piece), if so set proper flags
+		updateCheck(source.isWhite() ? Position.BLACK : Position.WHITE);
 		return false;
 	}
 
 	/**
-	 * Method that determines if king in check can be saved
-	 * Check if King has valid moves (including capturing attacker)
-	 * Check if any piece can capture attacking piece
-	 * Check if any piece can block the attack
-	 * @return Value that can be used to see if king can be saved
-	 */
-	private boolean canKingBeSaved() {
-		if (kingHasValidMove()) {
-			return true;
-		}
-		if (canAnyPieceCaptureAttacker()) {
-			return true;
-		}
-		if (canAnyPieceBlockAttacker()) {
-			return true;
-		}
-		return false;
-	}
-	
-	/**
-	 * Method that determines if any ally piece can block opponent's attack to king
-	 * @return true|false
-	 * 
+	 * Method that sets the check flag of the king of "color"
+	 * @param color The color of the king to check
 	 */
-	private boolean canAnyPieceBlockAttacker() {
-		Piece K, attacker;
-		if (whiteTurn) {
-			K = board.getWhiteKing();
-			attacker = blackAttacker;
+	private void updateCheck(int color) {
+		if (color == Position.BLACK) {
+			blackKingInCheck = board.position.isInCheck(color);
 		} else {
-			K = board.getBlackKing();
-			attacker = whiteAttacker;
-		}
-		// If attacker is Knight or Pawn it can't be blocked
-		if (vals.isPawn(attacker) || vals.isKnight(attacker)) {
-			return false;
-		}
-		// If attacker is right next to king there's no in between
-		// squares to check
-		if (K.isLegalMove(attacker, attacker.getX(), attacker.getY())) {
-			return false;
+			whiteKingInCheck = board.position.isInCheck(color);
 		}
-
-		// Identify squares between attacker and the king.
-		// See if any piece can move to any of those squares to block attack
-		Piece[][] b = board.board;
-		for (Piece[] ps : b) {
-			for (Piece p : ps) {
-				if (p == null || p.isKing()) {
-					continue;
-				}
-				List<Coord> path = SharedRules.tracePath(
-					attacker.getX(), attacker.getY(), K.getX(), K.getY(), b
-				);
-				for (Coord c : path) {
-					if (vals.isLegalMove(whiteTurn, p, null, c.x, c.y)) {
-						return true;
-					}
-				}
-			}
-		}
-		return false;
 	}
-	
+
 	/**
-	 * Method that determines if any ally piece can capture opponent that has king in check
+	 * Method that determines if the player to move has no legal move left and
+	 * sets the checkmate or stalemate flags if so
+	 * @param check Whether the player to move is in check
 	 * @return true|false
 	 */
-	private boolean canAnyPieceCaptureAttacker() {
-		Piece[][] b = board.board;
-		for (Piece[] ps : b) {
-			for (Piece p : ps) {
-				if (p == null || p.isKing()) {
-					continue;
-				}
-				Piece target = whiteTurn ? blackAttacker : whiteAttacker;
-				int targetX = target.getX(), targetY = target.getY();
-				if (vals.isLegalMove(whiteTurn, p, target, targetX, targetY)) {
-					return true;
-				}
-			}
+	private boolean checkIfGameEnded(boolean check) {
+		if (MoveGenerator.hasLegalMove(board.position, moves)) {
+			return false;
 		}
-		return false;
-	}
-	
-	/**
-	 * Method that determines if king in check has valid moves
-	 * @return true|false
-	 */
-	private boolean kingHasValidMove() {
-		Piece[][] b = board.board;
-		int[][] positions = new int[8][2];
-		Piece K = whiteTurn ? board.getWhiteKing() : board.getBlackKing();
-		int x = K.getX(), y = K.getY();
-		// Top left
-		positions[0][0] = x - 1;
-		positions[0][1] = y - 1;
-		// Top
-		positions[1][0] = x - 1;
-		positions[1][1] = y;
-		// Top right
-		positions[2][0] = x - 1;
-		positions[2][1] = y + 1;
-		// Left
-		positions[3][0] = x;
-		positions[3][1] = y - 1;
-		// Right
-		positions[4][0] = x;
-		positions[4][1] = y + 1;
-		// Bottom left
-		positions[5][0] = x + 1;
-		positions[5][1] = y - 1;
-		// Down
-		positions[5][0] = x + 1;
-		positions[5][1] = y;
-		// Bottom right
-		positions[5][0] = x + 1;
-		positions[5][1] = y + 1;
-		for (int[] pair : positions) {
-			// If X and Y are out of bounds go to next pair
-			if (pair[0] < 0 || pair[0] > 7 || pair[1] < 0 || pair[1] > 7) {
-				continue;
-			}
-			if (vals.isLegalMove(whiteTurn, K, b[pair[0]][pair[1]], pair[0], pair[1])) {
-				return true;
-			}
+		if (!check) {
+			stalemate = true;
+		} else if (whiteTurn) {
+			blackWinsByCheckmate = true;
+		} else {
+			whiteWinsByCheckmate = true;
 		}
-		return false;
+		return true;
 	}
 
 	/**
@@ -476,6 +504,7 @@ public class Engine {
 			name = p.isWhite() ? "wQ" : "bQ";
 			b[_x][_y] = new Queen(name, isWhite, isBlack, _x, _y, this);
 		}
+		board.position.replacePiece(Position.square(_x, _y), Position.pieceCode(b[_x][_y]));
 		return b[_x][_y];
 	}
 
@@ -484,20 +513,10 @@ public class Engine {
 	 * enpassant checks
 	 */
 	private void clearPawnsMove2SquaresFlag() {
-		Piece[][] b = board.board;
-		for (Piece[] ps : b) {
-			for (Piece p : ps) {
-				if (p == null || !vals.isPawn(p)) {
-					continue;
-				}
-				Pawn _p = (Pawn)p;
-				if (whiteTurn && _p.isWhite()) {
-					_p.clearMove2SquaresFlag();
-				} else if (!whiteTurn && _p.isBlack()) {
-					_p.clearMove2SquaresFlag();
-				}
-			}
-		}//end:for
+		int count = board.getPieces(whiteTurn, Position.PAWN, pieces, 0);
+		for (int i = 0; i < count; ++i) {
+			((Pawn)pieces[i]).clearMove2SquaresFlag();
+		}
 	}
 
 	/**
@@ -0,0 +1,524 @@
+package chess.engine;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * Static evaluation of a position in centipawns. Every term has a
+ * middlegame and an endgame value, the two are blended by the material
+ * left on the board (the game phase). Material and piece-square scores are
+ * kept by Position as pieces move, so only mobility, pawn structure and
+ * king safety are computed here, all from bitboards and the attack maps
+ * Position already keeps.
+ *
+ * Tables are written from white's side with a8 first, the same order as
+ * the squares of Position. Black uses the square mirrored vertically.
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public class Evaluation {
+	/**
+	 * Game phase with all pieces on the board
+	 */
+	public static final int MAX_PHASE = 24;
+
+	/**
+	 * Middlegame value of each piece type
+	 */
+	static final int[] mgValues = {100, 320, 330, 500, 900, 0};
+
+	/**
+	 * Endgame value of each piece type
+	 */
+	static final int[] egValues = {120, 290, 320, 530, 940, 0};
+
+	/**
+	 * Phase each piece type adds while on the board
+	 */
+	static final int[] phaseWeights = {0, 1, 1, 2, 4, 0};
+
+	/**
+	 * Middlegame bonus per reachable square of each piece type
+	 */
+	private static final int[] mobilityMg = {0, 4, 5, 2, 1, 0};
+
+	/**
+	 * Endgame bonus per reachable square of each piece type
+	 */
+	private static final int[] mobilityEg = {0, 4, 5, 4, 2, 0};
+
+	/**
+	 * Number of reachable squares of each piece type that scores 0
+	 */
+	private static final int[] mobilityBase = {0, 4, 6, 7, 13, 0};
+
+	/**
+	 * Middlegame bonus of a passed pawn by rank, counted from its own side
+	 */
+	private static final int[] passedMg = {0, 5, 5, 10, 20, 35, 60, 0};
+
+	/**
+	 * Endgame bonus of a passed pawn by rank, counted from its own side
+	 */
+	private static final int[] passedEg = {0, 10, 15, 25, 45, 70, 110, 0};
+
+	/**
+	 * Middlegame penalty of the king by the number of attacks on its zone
+	 */
+	private static final int[] kingDanger = {
+		0, 0, 5, 12, 22, 35, 50, 68, 88, 110, 135, 160, 190, 220, 250, 280
+	};
+
+	/**
+	 * Middlegame penalty of each extra pawn on a file
+	 */
+	private static final int DOUBLED_MG = 10;
+
+	/**
+	 * Endgame penalty of each extra pawn on a file
+	 */
+	private static final int DOUBLED_EG = 20;
+
+	/**
+	 * Middlegame penalty of a pawn without pawns of its color on the files next to it
+	 */
+	private static final int ISOLATED_MG = 10;
+
+	/**
+	 * Endgame penalty of a pawn without pawns of its color on the files next to it
+	 */
+	private static final int ISOLATED_EG = 15;
+
+	/**
+	 * Middlegame penalty of a pawn that can't advance safely and has no
+	 * pawns of its color beside or behind it on the files next to it
+	 */
+	private static final int BACKWARD_MG = 8;
+
+	/**
+	 * Endgame penalty of a backward pawn
+	 */
+	private static final int BACKWARD_EG = 10;
+
+	/**
+	 * Endgame bonus per square the own king is closer than the enemy king
+	 * to the square in front of a passed pawn
+	 */
+	private static final int PASSED_KING_DISTANCE_EG = 5;
+
+	/**
+	 * Middlegame bonus of each pawn in front of the king
+	 */
+	private static final int SHIELD_MG = 10;
+
+	/**
+	 * Squares on file a
+	 */
+	private static final long FILE_A = 0x0101010101010101L;
+
+	/**
+	 * Squares on file h
+	 */
+	private static final long FILE_H = 0x8080808080808080L;
+
+	/**
+	 * Piece-square table of pawns in the middlegame
+	 */
+	private static final int[] pawnMg = {
+		  0,   0,   0,   0,   0,   0,   0,   0,
+		 50,  50,  50,  50,  50,  50,  50,  50,
+		 10,  10,  20,  30,  30,  20,  10,  10,
+		  5,   5,  10,  25,  25,  10,   5,   5,
+		  0,   0,   0,  20,  20,   0,   0,   0,
+		  5,  -5, -10,   0,   0, -10,  -5,   5,
+		  5,  10,  10, -20, -20,  10,  10,   5,
+		  0,   0,   0,   0,   0,   0,   0,   0
+	};
+
+	/**
+	 * Piece-square table of pawns in the endgame
+	 */
+	private static final int[] pawnEg = {
+		  0,   0,   0,   0,   0,   0,   0,   0,
+		 80,  80,  80,  80,  80,  80,  80,  80,
+		 50,  50,  50,  50,  50,  50,  50,  50,
+		 30,  30,  30,  30,  30,  30,  30,  30,
+		 15,  15,  15,  15,  15,  15,  15,  15,
+		  5,   5,   5,   5,   5,   5,   5,   5,
+		  0,   0,   0,   0,   0,   0,   0,   0,
+		  0,   0,   0,   0,   0,   0,   0,   0
+	};
+
+	/**
+	 * Piece-square table of knights
+	 */
+	private static final int[] knightTable = {
+		-50, -40, -30, -30, -30, -30, -40, -50,
+		-40, -20,   0,   0,   0,   0, -20, -40,
+		-30,   0,  10,  15,  15,  10,   0, -30,
+		-30,   5,  15,  20,  20,  15,   5, -30,
+		-30,   0,  15,  20,  20,  15,   0, -30,
+		-30,   5,  10,  15,  15,  10,   5, -30,
+		-40, -20,   0,   5,   5,   0, -20, -40,
+		-50, -40, -30, -30, -30, -30, -40, -50
+	};
+
+	/**
+	 * Piece-square table of bishops
+	 */
+	private static final int[] bishopTable = {
+		-20, -10, -10, -10, -10, -10, -10, -20,
+		-10,   0,   0,   0,   0,   0,   0, -10,
+		-10,   0,   5,  10,  10,   5,   0, -10,
+		-10,   5,   5,  10,  10,   5,   5, -10,
+		-10,   0,  10,  10,  10,  10,   0, -10,
+		-10,  10,  10,  10,  10,  10,  10, -10,
+		-10,   5,   0,   0,   0,   0,   5, -10,
+		-20, -10, -10, -10, -10, -10, -10, -20
+	};
+
+	/**
+	 * Piece-square table of rooks
+	 */
+	private static final int[] rookTable = {
+		  0,   0,   0,   0,   0,   0,   0,   0,
+		  5,  10,  10,  10,  10,  10,  10,   5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		 -5,   0,   0,   0,   0,   0,   0,  -5,
+		  0,   0,   0,   5,   5,   0,   0,   0
+	};
+
+	/**
+	 * Piece-square table of queens
+	 */
+	private static final int[] queenTable = {
+		-20, -10, -10,  -5,  -5, -10, -10, -20,
+		-10,   0,   0,   0,   0,   0,   0, -10,
+		-10,   0,   5,   5,   5,   5,   0, -10,
+		 -5,   0,   5,   5,   5,   5,   0,  -5,
+		  0,   0,   5,   5,   5,   5,   0,  -5,
+		-10,   5,   5,   5,   5,   5,   0, -10,
+		-10,   0,   5,   0,   0,   0,   0, -10,
+		-20, -10, -10,  -5,  -5, -10, -10, -20
+	};
+
+	/**
+	 * Piece-square table of the king in the middlegame, stay behind the pawns
+	 */
+	private static final int[] kingMg = {
+		-30, -40, -40, -50, -50, -40, -40, -30,
+		-30, -40, -40, -50, -50, -40, -40, -30,
+		-30, -40, -40, -50, -50, -40, -40, -30,
+		-30, -40, -40, -50, -50, -40, -40, -30,
+		-20, -30, -30, -40, -40, -30, -30, -20,
+		-10, -20, -20, -20, -20, -20, -20, -10,
+		 20,  20,   0,   0,   0,   0,  20,  20,
+		 20,  30,  10,   0,   0,  10,  30,  20
+	};
+
+	/**
+	 * Piece-square table of the king in the endgame, come to the center
+	 */
+	private static final int[] kingEg = {
+		-50, -40, -30, -20, -20, -30, -40, -50,
+		-30, -20, -10,   0,   0, -10, -20, -30,
+		-30, -10,  20,  30,  30,  20, -10, -30,
+		-30, -10,  30,  40,  40,  30, -10, -30,
+		-30, -10,  30,  40,  40,  30, -10, -30,
+		-30, -10,  20,  30,  30,  20, -10, -30,
+		-30, -30,   0,   0,   0,   0, -30, -30,
+		-50, -30, -30, -30, -30, -30, -30, -50
+	};
+
+	/**
+	 * Middlegame value plus piece-square score of each piece code on each
+	 * square, indexed by "code * 64 + square", negative for black
+	 */
+	static final int[] mgSquareScores = new int[12 * 64];
+
+	/**
+	 * Endgame value plus piece-square score of each piece code on each
+	 * square, indexed by "code * 64 + square", negative for black
+	 */
+	static final int[] egSquareScores = new int[12 * 64];
+
+	/**
+	 * Squares on the files next to each file
+	 */
+	private static final long[] adjacentFiles = new long[8];
+
+	/**
+	 * Squares a pawn of each color on each square must have free of enemy
+	 * pawns to be passed, indexed by "color * 64 + square"
+	 */
+	private static final long[] passedMasks = new long[128];
+
+	/**
+	 * Squares on the files next to a pawn of each color on each square,
+	 * level with or behind it, indexed by "color * 64 + square"
+	 */
+	private static final long[] supportMasks = new long[128];
+
+	/**
+	 * Squares of the pawns shielding a king of each color on each square,
+	 * indexed by "color * 64 + square"
+	 */
+	private static final long[] shieldMasks = new long[128];
+
+	static {
+		int[][] mgTables = {pawnMg, knightTable, bishopTable, rookTable, queenTable, kingMg};
+		int[][] egTables = {pawnEg, knightTable, bishopTable, rookTable, queenTable, kingEg};
+		for (int type = Position.PAWN; type <= Position.KING; ++type) {
+			for (int sq = 0; sq < 64; ++sq) {
+				int white = Position.code(Position.WHITE, type) * 64 + sq;
+				int black = Position.code(Position.BLACK, type) * 64 + sq;
+				mgSquareScores[white] = mgValues[type] + mgTables[type][sq];
+				egSquareScores[white] = egValues[type] + egTables[type][sq];
+				mgSquareScores[black] = -(mgValues[type] + mgTables[type][sq ^ 56]);
+				egSquareScores[black] = -(egValues[type] + egTables[type][sq ^ 56]);
+			}
+		}
+		for (int y = 0; y < 8; ++y) {
+			adjacentFiles[y] = (y > 0 ? FILE_A << (y - 1) : 0L) | (y < 7 ? FILE_A << (y + 1) : 0L);
+		}
+		for (int sq = 0; sq < 64; ++sq) {
+			int x = Position.rowOf(sq);
+			int y = Position.columnOf(sq);
+			long files = adjacentFiles[y] | (FILE_A << y);
+			for (int row = 0; row < 8; ++row) {
+				long rank = 0xFFL << (row * 8);
+				if (row < x) {
+					passedMasks[sq] |= files & rank;
+				} else if (row > x) {
+					passedMasks[64 + sq] |= files & rank;
+				}
+				if (row >= x) {
+					supportMasks[sq] |= adjacentFiles[y] & rank;
+				}
+				if (row <= x) {
+					supportMasks[64 + sq] |= adjacentFiles[y] & rank;
+				}
+				if (row == x - 1 || row == x - 2) {
+					shieldMasks[sq] |= files & rank;
+				} else if (row == x + 1 || row == x + 2) {
+					shieldMasks[64 + sq] |= files & rank;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Middlegame score of the pawn structure computed last, white minus black
+	 */
+	private int pawnMgScore;
+
+	/**
+	 * Endgame score of the pawn structure computed last, white minus black
+	 */
+	private int pawnEgScore;
+
+	/**
+	 * Passed pawns of both colors found by the last pawn structure computed
+	 */
+	private long passedPawns;
+
+	/**
+	 * Pawn structure scores of the positions evaluated before
+	 */
+	private final PawnCache pawnCache;
+
+	/**
+	 * Constructor
+	 */
+	public Evaluation() {
+		this(new PawnCache(PawnCache.DEFAULT_ENTRIES));
+	}
+
+	/**
+	 * Constructor
+	 * @param pawnCache The cache of pawn structure scores to use
+	 */
+	public Evaluation(PawnCache pawnCache) {
+		this.pawnCache = pawnCache;
+	}
+
+	/**
+	 * @return The cache of pawn structure scores
+	 */
+	public PawnCache getPawnCache() {
+		return pawnCache;
+	}
+
+	/**
+	 * Evaluates a position
+	 * @param pos The position
+	 * @return The score of the position from the side to move, in centipawns
+	 */
+	public int evaluate(Position pos) {
+		int mg = pos.mgScore;
+		int eg = pos.egScore;
+
+		long whitePawns = pos.pieces[Position.code(Position.WHITE, Position.PAWN)];
+		long blackPawns = pos.pieces[Position.code(Position.BLACK, Position.PAWN)];
+		long whitePawnAttacks = ((whitePawns & ~FILE_A) >>> 9) | ((whitePawns & ~FILE_H) >>> 7);
+		long blackPawnAttacks = ((blackPawns & ~FILE_A) << 7) | ((blackPawns & ~FILE_H) << 9);
+
+		// Mobility, squares attacked by enemy pawns don't count
+		for (int type = Position.KNIGHT; type <= Position.QUEEN; ++type) {
+			int whiteMoves = mobility(pos, Position.WHITE, type, ~(pos.occupancy[Position.WHITE] | blackPawnAttacks));
+			int blackMoves = mobility(pos, Position.BLACK, type, ~(pos.occupancy[Position.BLACK] | whitePawnAttacks));
+			mg += mobilityMg[type] * (whiteMoves - blackMoves);
+			eg += mobilityEg[type] * (whiteMoves - blackMoves);
+		}
+
+		// Pawn structure only depends on the pawns, look it up by the pawn hash
+		long key = pos.pawnHash;
+		int slot = pawnCache.slot(key);
+		if (!pawnCache.lookup(slot, key)) {
+			pawnStructure(whitePawns, blackPawns, whitePawnAttacks, blackPawnAttacks);
+			pawnCache.store(slot, key, pawnMgScore, pawnEgScore, passedPawns);
+		}
+		mg += pawnCache.mgScores[slot];
+		eg += pawnCache.egScores[slot];
+		eg += passedPawnKings(pos, pawnCache.passedPawns[slot]);
+
+		mg += kingSafety(pos, Position.WHITE, whitePawns) - kingSafety(pos, Position.BLACK, blackPawns);
+
+		int phase = Math.min(pos.phase, MAX_PHASE);
+		int score = (mg * phase + eg * (MAX_PHASE - phase)) / MAX_PHASE;
+		return pos.sideToMove == Position.WHITE ? score : -score;
+	}
+
+	/**
+	 * @param pos The position
+	 * @param color The color of the pieces
+	 * @param type The type of the pieces
+	 * @param area The squares that count as reachable
+	 * @return The reachable squares of all pieces of the color and type,
+	 * minus the base count of each
+	 */
+	private static int mobility(Position pos, int color, int type, long area) {
+		int code = Position.code(color, type);
+		int total = 0;
+		for (int i = 0; i < pos.pieceCounts[code]; ++i) {
+			int sq = pos.pieceLists[code * Position.LIST_SIZE + i];
+			total += Long.bitCount(pos.attacksFrom[sq] & area) - mobilityBase[type];
+		}
+		return total;
+	}
+
+	/**
+	 * Scores doubled, isolated, backward and passed pawns into "pawnMgScore"
+	 * and "pawnEgScore", white minus black, and finds the passed pawns
+	 * @param whitePawns The squares of the white pawns
+	 * @param blackPawns The squares of the black pawns
+	 * @param whitePawnAttacks The squares attacked by white pawns
+	 * @param blackPawnAttacks The squares attacked by black pawns
+	 */
+	void pawnStructure(long whitePawns, long blackPawns, long whitePawnAttacks, long blackPawnAttacks) {
+		int mg = 0;
+		int eg = 0;
+		long passed = 0L;
+		for (int color = Position.WHITE; color <= Position.BLACK; ++color) {
+			long own = color == Position.WHITE ? whitePawns : blackPawns;
+			long enemy = color == Position.WHITE ? blackPawns : whitePawns;
+			long enemyAttacks = color == Position.WHITE ? blackPawnAttacks : whitePawnAttacks;
+			int sign = color == Position.WHITE ? 1 : -1;
+			for (int y = 0; y < 8; ++y) {
+				int count = Long.bitCount(own & (FILE_A << y));
+				if (count > 1) {
+					mg -= sign * DOUBLED_MG * (count - 1);
+					eg -= sign * DOUBLED_EG * (count - 1);
+				}
+				if (count > 0 && (own & adjacentFiles[y]) == 0L) {
+					mg -= sign * ISOLATED_MG * count;
+					eg -= sign * ISOLATED_EG * count;
+				}
+			}
+			for (long bits = own; bits != 0L; bits &= bits - 1) {
+				int sq = Long.numberOfTrailingZeros(bits);
+				if ((enemy & passedMasks[color * 64 + sq]) == 0L) {
+					int rank = color == Position.WHITE ? 7 - Position.rowOf(sq) : Position.rowOf(sq);
+					mg += sign * passedMg[rank];
+					eg += sign * passedEg[rank];
+					passed |= 1L << sq;
+				}
+				// Isolated pawns are already penalized above
+				long stop = 1L << (color == Position.WHITE ? sq - 8 : sq + 8);
+				if ((own & supportMasks[color * 64 + sq]) == 0L && (own & adjacentFiles[Position.columnOf(sq)]) != 0L
+					&& (enemyAttacks & stop) != 0L) {
+					mg -= sign * BACKWARD_MG;
+					eg -= sign * BACKWARD_EG;
+				}
+			}
+		}
+		pawnMgScore = mg;
+		pawnEgScore = eg;
+		passedPawns = passed;
+	}
+
+	/**
+	 * Scores how close the kings are to the passed pawns, which depends on
+	 * the kings and so can't be kept in the pawn cache
+	 * @param pos The position
+	 * @param passed The passed pawns of both colors
+	 * @return The endgame score, white minus black
+	 */
+	private static int passedPawnKings(Position pos, long passed) {
+		int whiteKing = pos.kingSquares[Position.WHITE];
+		int blackKing = pos.kingSquares[Position.BLACK];
+		if (passed == 0L || whiteKing == Position.NO_SQUARE || blackKing == Position.NO_SQUARE) {
+			return 0;
+		}
+		int eg = 0;
+		for (long bits = passed; bits != 0L; bits &= bits - 1) {
+			int sq = Long.numberOfTrailingZeros(bits);
+			boolean white = (pos.occupancy[Position.WHITE] & (1L << sq)) != 0L;
+			int stop = white ? sq - 8 : sq + 8;
+			int own = distance(white ? whiteKing : blackKing, stop);
+			int enemy = distance(white ? blackKing : whiteKing, stop);
+			eg += (white ? 1 : -1) * PASSED_KING_DISTANCE_EG * (enemy - own);
+		}
+		return eg;
+	}
+
+	/**
+	 * @param a A square
+	 * @param b Another square
+	 * @return The number of king moves from one square to the other
+	 */
+	private static int distance(int a, int b) {
+		return Math.max(Math.abs(Position.rowOf(a) - Position.rowOf(b)),
+			Math.abs(Position.columnOf(a) - Position.columnOf(b)));
+	}
+
+	/**
+	 * @param pos The position
+	 * @param color The color of the king
+	 * @param pawns The squares of the pawns of the color
+	 * @return The middlegame score of the safety of the king: a bonus for
+	 * pawns in front of it minus a penalty growing with the attacks on the
+	 * squares around it
+	 */
+	private static int kingSafety(Position pos, int color, long pawns) {
+		int sq = pos.kingSquares[color];
+		if (sq == Position.NO_SQUARE) {
+			return 0;
+		}
+		int enemy = color ^ 1;
+		int attacks = pos.attackCounts[enemy * 64 + sq];
+		for (long zone = Attacks.kingAttacks(sq); zone != 0L; zone &= zone - 1) {
+			attacks += pos.attackCounts[enemy * 64 + Long.numberOfTrailingZeros(zone)];
+		}
+		int danger = kingDanger[Math.min(attacks, kingDanger.length - 1)];
+		// Without a queen an attack on the king rarely gets through
+		if (pos.pieceCounts[Position.code(enemy, Position.QUEEN)] == 0) {
+			danger /= 2;
+		}
+		return SHIELD_MG * Long.bitCount(pawns & shieldMasks[color * 64 + sq]) - danger;
+	}
+}
@@ -0,0 +1,226 @@
+package chess.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * Read only access to a binary game archive through a memory mapped file.
+ * The layout is:
+ *   header: magic, version, game count, unused, offset of the index (24 bytes)
+ *   records: plies (u16), result (u8), tag count (u8), tag table size (u32),
+ *            tag table, then one 16-bit packed move per ply
+ *   index: offset of each record plus the end of the last one (u64 each)
+ * Any game is found in O(1) through the index and its moves are read
+ * straight from the mapping. An archive is mapped at once, so it can't be
+ * larger than 2 GB.
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public class GameArchive implements Closeable {
+	/**
+	 * First 4 bytes of every archive, "JCGA"
+	 */
+	static final int MAGIC = 0x4A434741;
+
+	/**
+	 * Version of the format
+	 */
+	static final int VERSION = 1;
+
+	/**
+	 * Size of the file header in bytes
+	 */
+	static final int HEADER_SIZE = 24;
+
+	/**
+	 * Size of the fixed part of a game record in bytes
+	 */
+	static final int RECORD_HEADER_SIZE = 8;
+
+	/**
+	 * Result tokens, indexed by the result code stored in each record
+	 */
+	private static final String[] results = {"*", "1-0", "0-1", "1/2-1/2"};
+
+	/**
+	 * The open file
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * Mapping of the whole file
+	 */
+	private final MappedByteBuffer data;
+
+	/**
+	 * Number of games in the archive
+	 */
+	private final int count;
+
+	/**
+	 * Offset of the index
+	 */
+	private final int index;
+
+	/**
+	 * Constructor, maps the file and checks its header
+	 * @param file The archive file
+	 * @throws IOException If the file can't be read or isn't an archive
+	 */
+	public GameArchive(Path file) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("Archive larger than 2 GB: " + file);
+			}
+			if (size < HEADER_SIZE) {
+				throw new IOException("Not a game archive: " + file);
+			}
+			data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			if (data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+				throw new IOException("Not a game archive: " + file);
+			}
+			count = data.getInt(8);
+			long indexOffset = data.getLong(16);
+			if (count < 0 || indexOffset < HEADER_SIZE || indexOffset + 8L * (count + 1) > size) {
+				throw new IOException("Corrupt game archive: " + file);
+			}
+			index = (int)indexOffset;
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return The number of games in the archive
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * @param game The index of the game
+	 * @return The number of moves of the game
+	 */
+	public int getPlies(int game) {
+		return data.getShort(offset(game)) & 0xFFFF;
+	}
+
+	/**
+	 * @param game The index of the game
+	 * @return The result token of the game
+	 */
+	public String getResult(int game) {
+		return results[data.get(offset(game) + 2) & 3];
+	}
+
+	/**
+	 * Reads one move without decoding the rest of the game
+	 * @param game The index of the game
+	 * @param ply The index of the move within the game
+	 * @return The packed move
+	 */
+	public int getMove(int game, int ply) {
+		int record = offset(game);
+		if (ply < 0 || ply >= (data.getShort(record) & 0xFFFF)) {
+			throw new IndexOutOfBoundsException("Ply " + ply + " of game " + game);
+		}
+		return data.getShort(record + RECORD_HEADER_SIZE + data.getInt(record + 4) + 2 * ply) & 0xFFFF;
+	}
+
+	/**
+	 * @param game The index of the game
+	 * @param name The name of the tag
+	 * @return The value of the tag, or null if the game doesn't have it
+	 */
+	public String getTag(int game, String name) {
+		int record = offset(game);
+		int tagCount = data.get(record + 3) & 0xFF;
+		int p = record + RECORD_HEADER_SIZE;
+		for (int i = 0; i < tagCount; ++i) {
+			int nameLength = data.get(p) & 0xFF;
+			int valueLength = data.getShort(p + 1 + nameLength) & 0xFFFF;
+			if (decode(p + 1, nameLength).equals(name)) {
+				return decode(p + 3 + nameLength, valueLength);
+			}
+			p += 3 + nameLength + valueLength;
+		}
+		return null;
+	}
+
+	/**
+	 * Loads the starting position of a game on "board" and plays its first
+	 * "plies" moves. The moves were checked when the archive was written, so
+	 * they are played without generating the legal moves.
+	 * @param game The index of the game
+	 * @param board The board to play the game on
+	 * @param plies The number of moves to play, at most the length of the game
+	 */
+	public void replay(int game, Board board, int plies) {
+		String fen = getTag(game, "FEN");
+		board.loadFen(fen != null ? fen : PerftCounter.START_FEN);
+		int record = offset(game);
+		int n = Math.min(plies, data.getShort(record) & 0xFFFF);
+		int moves = record + RECORD_HEADER_SIZE + data.getInt(record + 4);
+		for (int i = 0; i < n; ++i) {
+			board.makeMove(data.getShort(moves + 2 * i) & 0xFFFF);
+		}
+	}
+
+	/**
+	 * Closes the file, the mapping stays valid until it is garbage collected
+	 * @throws IOException If the file can't be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * @param game The index of the game
+	 * @return The offset of the game record
+	 */
+	private int offset(int game) {
+		if (game < 0 || game >= count) {
+			throw new IndexOutOfBoundsException("Game " + game + " of " + count);
+		}
+		return (int)data.getLong(index + 8 * game);
+	}
+
+	/**
+	 * @param p The offset of the string
+	 * @param length The length of the string in bytes
+	 * @return The decoded UTF-8 string
+	 */
+	private String decode(int p, int length) {
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; ++i) {
+			bytes[i] = data.get(p + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @param result The result token of a game
+	 * @return The code stored in the archive for "result"
+	 */
+	static int resultCode(String result) {
+		for (int i = 1; i < results.length; ++i) {
+			if (results[i].equals(result)) {
+				return i;
+			}
+		}
+		return 0;
+	}
+}
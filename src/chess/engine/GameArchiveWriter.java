@@ -0,0 +1,278 @@
+package chess.engine;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * Writes games into the binary format read by GameArchive. Games are
+ * appended through a buffer, the offset index and the file header are
+ * written when the archive is closed.
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public class GameArchiveWriter implements Closeable {
+	/**
+	 * The file being written
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * Output buffer, written to the file when full
+	 */
+	private final ByteBuffer buffer = ByteBuffer.allocate(1 << 17);
+
+	/**
+	 * Offset of the next byte written to the file
+	 */
+	private long offset = GameArchive.HEADER_SIZE;
+
+	/**
+	 * Offset of each game record
+	 */
+	private long[] offsets = new long[1024];
+
+	/**
+	 * Number of games written
+	 */
+	private int count;
+
+	/**
+	 * Buffer for the moves of converted games
+	 */
+	private int[] moves = new int[Position.MAX_PLY];
+
+	/**
+	 * Constructor, creates or truncates the file
+	 * @param file The file to write the archive to
+	 * @throws IOException If the file can't be created
+	 */
+	public GameArchiveWriter(Path file) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.CREATE,
+			StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		channel.position(GameArchive.HEADER_SIZE);
+	}
+
+	/**
+	 * Appends a game
+	 * @param tags The tag pairs of the game, including "FEN" if it doesn't
+	 * start from the initial position
+	 * @param result The result token: "1-0", "0-1", "1/2-1/2" or "*"
+	 * @param moves The packed moves of the game
+	 * @param plies The number of moves
+	 * @throws IOException If the file can't be written
+	 */
+	public void add(Map<String, String> tags, String result, int[] moves, int plies)
+		throws IOException {
+		if (plies > 0xFFFF) {
+			throw new IllegalArgumentException("Too many moves: " + plies);
+		}
+		if (count == Integer.MAX_VALUE) {
+			throw new IllegalStateException("Archive is full");
+		}
+		if (count == offsets.length) {
+			offsets = Arrays.copyOf(offsets, count * 2);
+		}
+		offsets[count++] = offset;
+
+		// Tag table, names and values are length prefixed UTF-8
+		int tagCount = Math.min(tags.size(), 255);
+		byte[][] table = new byte[tagCount * 2][];
+		int tagBytes = 0;
+		int i = 0;
+		for (Map.Entry<String, String> tag : tags.entrySet()) {
+			if (i == table.length) {
+				break;
+			}
+			table[i] = truncate(tag.getKey().getBytes(StandardCharsets.UTF_8), 0xFF);
+			table[i + 1] = truncate(tag.getValue().getBytes(StandardCharsets.UTF_8), 0xFFFF);
+			tagBytes += 3 + table[i].length + table[i + 1].length;
+			i += 2;
+		}
+
+		ensure(GameArchive.RECORD_HEADER_SIZE);
+		buffer.putShort((short)plies);
+		buffer.put((byte)GameArchive.resultCode(result));
+		buffer.put((byte)tagCount);
+		buffer.putInt(tagBytes);
+		for (i = 0; i < table.length; i += 2) {
+			ensure(3 + table[i].length + table[i + 1].length);
+			buffer.put((byte)table[i].length);
+			buffer.put(table[i]);
+			buffer.putShort((short)table[i + 1].length);
+			buffer.put(table[i + 1]);
+		}
+		for (i = 0; i < plies; ++i) {
+			ensure(2);
+			buffer.putShort((short)moves[i]);
+		}
+		offset += GameArchive.RECORD_HEADER_SIZE + tagBytes + 2L * plies;
+	}
+
+	/**
+	 * Converts the games of a PGN stream. Each game is replayed so only legal
+	 * moves are stored, games with errors are reported and skipped.
+	 * @param in The PGN stream
+	 * @param errors The stream to report skipped games to
+	 * @return The number of games added
+	 * @throws IOException If a file can't be read or written
+	 */
+	public int addPgn(Reader in, PrintStream errors) throws IOException {
+		PgnReader reader = new PgnReader(in);
+		PgnReplayer replayer = new PgnReplayer();
+		PgnGame game = new PgnGame();
+		int added = 0;
+		int read = 0;
+		while (reader.readGame(game)) {
+			++read;
+			if (addReplayed(replayer, game, read, errors)) {
+				++added;
+			}
+		}
+		return added;
+	}
+
+	/**
+	 * Converts games typed the way the console game reads them: one move per
+	 * line such as "e2e4", "e7e8 N" or "g1f3 draw?", "resign" or "draw" to
+	 * end the game, and a blank line between games.
+	 * @param in The stream of moves
+	 * @param errors The stream to report skipped games to
+	 * @return The number of games added
+	 * @throws IOException If a file can't be read or written
+	 */
+	public int addCoordinateGames(BufferedReader in, PrintStream errors) throws IOException {
+		PgnReplayer replayer = new PgnReplayer();
+		PgnGame game = new PgnGame();
+		int added = 0;
+		int read = 0;
+		String line;
+		do {
+			line = in.readLine();
+			String input = line == null ? "" : line.trim();
+			if (input.isEmpty()) {
+				if (!game.isEmpty()) {
+					++read;
+					if (addReplayed(replayer, game, read, errors)) {
+						++added;
+					}
+					game.clear();
+				}
+			} else if (input.equals("resign")) {
+				// The player to move resigns
+				game.setResult(game.getMoves().size() % 2 == 0 ? "0-1" : "1-0");
+			} else if (input.equals("draw")) {
+				game.setResult("1/2-1/2");
+			} else {
+				game.addMove(input.replace("draw?", "").replace(" ", ""));
+			}
+		} while (line != null);
+		return added;
+	}
+
+	/**
+	 * Replays a game and appends it if all its moves are legal
+	 * @param replayer The replayer used to check the moves
+	 * @param game The game to add
+	 * @param number The number of the game in its input, used in error messages
+	 * @param errors The stream to report a skipped game to
+	 * @return true if the game was added, false otherwise
+	 * @throws IOException If the file can't be written
+	 */
+	private boolean addReplayed(PgnReplayer replayer, PgnGame game, int number, PrintStream errors)
+		throws IOException {
+		if (!replayer.replay(game)) {
+			errors.println("Game " + number + " skipped, " + replayer.getError());
+			return false;
+		}
+		int plies = replayer.getPlies();
+		if (moves.length < plies) {
+			moves = new int[plies];
+		}
+		for (int i = 0; i < plies; ++i) {
+			moves[i] = replayer.getMove(i);
+		}
+		add(game.getTags(), game.getResult(), moves, plies);
+		return true;
+	}
+
+	/**
+	 * @return The number of games written so far
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Writes the offset index and the header, then closes the file
+	 * @throws IOException If the file can't be written
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			// Offset of every game plus the end of the last one
+			for (int i = 0; i <= count; ++i) {
+				ensure(8);
+				buffer.putLong(i < count ? offsets[i] : offset);
+			}
+			flush();
+			ByteBuffer header = ByteBuffer.allocate(GameArchive.HEADER_SIZE);
+			header.putInt(GameArchive.MAGIC);
+			header.putInt(GameArchive.VERSION);
+			header.putInt(count);
+			header.putInt(0);
+			header.putLong(offset);
+			header.flip();
+			while (header.hasRemaining()) {
+				channel.write(header, header.position());
+			}
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Makes room for "n" more bytes in the buffer
+	 * @param n The number of bytes about to be written
+	 * @throws IOException If the file can't be written
+	 */
+	private void ensure(int n) throws IOException {
+		if (buffer.remaining() < n) {
+			flush();
+		}
+	}
+
+	/**
+	 * Writes the buffer to the file
+	 * @throws IOException If the file can't be written
+	 */
+	private void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * @param bytes The encoded string
+	 * @param max The maximum length
+	 * @return "bytes", cut to at most "max" bytes
+	 */
+	private static byte[] truncate(byte[] bytes, int max) {
+		return bytes.length <= max ? bytes : Arrays.copyOf(bytes, max);
+	}
+}
@@ -0,0 +1,39 @@
+package chess.engine;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * State of a game as seen from outside the engine
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public enum GameStatus {
+	/**
+	 * The game goes on
+	 */
+	IN_PROGRESS,
+
+	/**
+	 * White won by checkmate or because black resigned
+	 */
+	WHITE_WINS,
+
+	/**
+	 * Black won by checkmate or because white resigned
+	 */
+	BLACK_WINS,
+
+	/**
+	 * Both players agreed to a draw
+	 */
+	DRAW;
+
+	/**
+	 * @return true if the game ended, false otherwise
+	 */
+	public boolean isOver() {
+		return this != IN_PROGRESS;
+	}
+}
@@ -0,0 +1,163 @@
+package chess.engine;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * Helper methods for moves packed into an int. Bits 0-5 hold the source
+ * square, bits 6-11 the target square and bits 12-15 the move flag, so
+ * every move fits in 16 bits.
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public class Move {
+	/**
+	 * Value used when there is no move
+	 */
+	public static final int NONE = 0;
+
+	/**
+	 * Flag of a quiet move
+	 */
+	public static final int QUIET = 0;
+
+	/**
+	 * Flag of a pawn moving 2 squares forward
+	 */
+	public static final int DOUBLE_PAWN_PUSH = 1;
+
+	/**
+	 * Flag of king side castling
+	 */
+	public static final int KING_CASTLE = 2;
+
+	/**
+	 * Flag of queen side castling
+	 */
+	public static final int QUEEN_CASTLE = 3;
+
+	/**
+	 * Flag of a capture, also used as the capture bit of promotions
+	 */
+	public static final int CAPTURE = 4;
+
+	/**
+	 * Flag of an en passant capture
+	 */
+	public static final int EN_PASSANT = 5;
+
+	/**
+	 * Bit set on all promotions, the low 2 bits select the new piece
+	 */
+	public static final int PROMOTION = 8;
+
+	/**
+	 * Letters used for the promotion piece, indexed by piece type
+	 */
+	private static final String promotionLetters = " NBRQ";
+
+	/**
+	 * @param from The source square
+	 * @param to The target square
+	 * @param flag The move flag
+	 * @return The packed move
+	 */
+	public static int encode(int from, int to, int flag) {
+		return from | (to << 6) | (flag << 12);
+	}
+
+	/**
+	 * @param from The source square
+	 * @param to The target square
+	 * @param pieceType The type of the new piece (knight to queen)
+	 * @param capture Flag to determine if the promotion captures a piece
+	 * @return The packed promotion move
+	 */
+	public static int encodePromotion(int from, int to, int pieceType, boolean capture) {
+		int flag = PROMOTION | (pieceType - Position.KNIGHT);
+		if (capture) {
+			flag |= CAPTURE;
+		}
+		return encode(from, to, flag);
+	}
+
+	/**
+	 * @param move The packed move
+	 * @return The source square
+	 */
+	public static int from(int move) {
+		return move & 63;
+	}
+
+	/**
+	 * @param move The packed move
+	 * @return The target square
+	 */
+	public static int to(int move) {
+		return (move >>> 6) & 63;
+	}
+
+	/**
+	 * @param move The packed move
+	 * @return The move flag
+	 */
+	public static int flag(int move) {
+		return (move >>> 12) & 15;
+	}
+
+	/**
+	 * @param move The packed move
+	 * @return true|false
+	 */
+	public static boolean isCapture(int move) {
+		return (flag(move) & CAPTURE) != 0;
+	}
+
+	/**
+	 * @param move The packed move
+	 * @return true|false
+	 */
+	public static boolean isPromotion(int move) {
+		return (flag(move) & PROMOTION) != 0;
+	}
+
+	/**
+	 * @param move The packed move
+	 * @return true|false
+	 */
+	public static boolean isCastling(int move) {
+		int flag = flag(move);
+		return flag == KING_CASTLE || flag == QUEEN_CASTLE;
+	}
+
+	/**
+	 * @param move The packed promotion move
+	 * @return The type of the piece the pawn is promoted to
+	 */
+	public static int promotionType(int move) {
+		return Position.KNIGHT + (flag(move) & 3);
+	}
+
+	/**
+	 * @param sq The square index
+	 * @return The "[file][rank]" name of the square
+	 */
+	public static String squareName(int sq) {
+		return "" + Board.fileLetters.charAt(Position.columnOf(sq))
+			+ Board.rankNumbers.charAt(Position.rowOf(sq));
+	}
+
+	/**
+	 * Writes the move the same way players type it, i.e. "e2e4" or "g7g8N"
+	 * @param move The packed move
+	 * @return The move as text
+	 */
+	public static String toString(int move) {
+		String s = squareName(from(move)) + squareName(to(move));
+		if (isPromotion(move)) {
+			s += promotionLetters.charAt(promotionType(move));
+		}
+		return s;
+	}
+}
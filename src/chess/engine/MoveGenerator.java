@@ -0,0 +1,392 @@
+package chess.engine;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * Enumerates the moves of the side to move into a caller supplied int
+ * array instead of testing every source and target pair. Moves are packed
+ * with the Move helpers. The buffer must have room for all moves of a
+ * position, MAX_MOVES per position is always enough.
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public class MoveGenerator {
+	/**
+	 * Upper bound of the number of moves in any position
+	 */
+	public static final int MAX_MOVES = 256;
+
+	/**
+	 * Squares between king and rook that must be empty, indexed like the castling bits
+	 */
+	private static final long[] castlingPath = new long[9];
+
+	/**
+	 * Square the king passes over when castling, indexed like the castling bits
+	 */
+	private static final int[] castlingPassSquare = new int[9];
+
+	static {
+		castlingPath[Position.WHITE_KINGSIDE] = (1L << 61) | (1L << 62);
+		castlingPath[Position.WHITE_QUEENSIDE] = (1L << 57) | (1L << 58) | (1L << 59);
+		castlingPath[Position.BLACK_KINGSIDE] = (1L << 5) | (1L << 6);
+		castlingPath[Position.BLACK_QUEENSIDE] = (1L << 1) | (1L << 2) | (1L << 3);
+		castlingPassSquare[Position.WHITE_KINGSIDE] = 61;
+		castlingPassSquare[Position.WHITE_QUEENSIDE] = 59;
+		castlingPassSquare[Position.BLACK_KINGSIDE] = 5;
+		castlingPassSquare[Position.BLACK_QUEENSIDE] = 3;
+	}
+
+	/**
+	 * Fills "moves" with all pseudo legal moves of the side to move, i.e. moves
+	 * that follow the rules of each piece but might leave the own king in check
+	 * @param pos The position to generate moves for
+	 * @param moves The buffer to write the moves to
+	 * @param start The first index of "moves" to write to
+	 * @return The index after the last move written
+	 */
+	public static int generatePseudoLegal(Position pos, int[] moves, int start) {
+		int us = pos.sideToMove;
+		long own = pos.occupancy[us];
+		long enemy = pos.occupancy[us ^ 1];
+		int n = start;
+		n = generatePawnMoves(pos, moves, n);
+		n = generateKnightMoves(pos.pieces(us, Position.KNIGHT), own, enemy, moves, n);
+		n = generateBishopMoves(pos, pos.pieces(us, Position.BISHOP), own, enemy, moves, n);
+		n = generateRookMoves(pos, pos.pieces(us, Position.ROOK), own, enemy, moves, n);
+		n = generateQueenMoves(pos, pos.pieces(us, Position.QUEEN), own, enemy, moves, n);
+		n = generateKingMoves(pos, own, enemy, moves, n);
+		return n;
+	}
+
+	/**
+	 * Fills "moves" with all legal moves of the side to move
+	 * @param pos The position to generate moves for
+	 * @param moves The buffer to write the moves to
+	 * @param start The first index of "moves" to write to
+	 * @return The index after the last move written
+	 */
+	public static int generateLegal(Position pos, int[] moves, int start) {
+		int end = generatePseudoLegal(pos, moves, start);
+		return filterLegal(pos, moves, start, end);
+	}
+
+	/**
+	 * Method that determines if the side to move has at least one legal move,
+	 * without it the game is over by checkmate or stalemate. King moves are
+	 * tried first, they are the only escape from a double check; the other
+	 * pieces are generated one kind at a time and the search stops at the
+	 * first legal move.
+	 * @param pos The position to look at
+	 * @param moves A buffer of MAX_MOVES moves, its content is overwritten
+	 * @return true|false
+	 */
+	public static boolean hasLegalMove(Position pos, int[] moves) {
+		int us = pos.sideToMove;
+		long own = pos.occupancy[us];
+		long enemy = pos.occupancy[us ^ 1];
+		if (containsLegal(pos, moves, generateKingMoves(pos, own, enemy, moves, 0))) {
+			return true;
+		}
+		int king = pos.kingSquare(us);
+		if (king != Position.NO_SQUARE && pos.attackerCount(king, us ^ 1) > 1) {
+			return false;
+		}
+		return containsLegal(pos, moves, generatePawnMoves(pos, moves, 0))
+			|| containsLegal(pos, moves, generateKnightMoves(pos.pieces(us, Position.KNIGHT), own, enemy, moves, 0))
+			|| containsLegal(pos, moves, generateBishopMoves(pos, pos.pieces(us, Position.BISHOP), own, enemy, moves, 0))
+			|| containsLegal(pos, moves, generateRookMoves(pos, pos.pieces(us, Position.ROOK), own, enemy, moves, 0))
+			|| containsLegal(pos, moves, generateQueenMoves(pos, pos.pieces(us, Position.QUEEN), own, enemy, moves, 0));
+	}
+
+	/**
+	 * Method that determines if any of the first "end" moves of a buffer is legal
+	 * @param pos The position the moves were generated for
+	 * @param moves The buffer that holds the moves
+	 * @param end The index after the last move
+	 * @return true|false
+	 */
+	private static boolean containsLegal(Position pos, int[] moves, int end) {
+		for (int i = 0; i < end; ++i) {
+			if (isLegal(pos, moves[i])) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Legal filter stage, removes the moves that leave the own king in check.
+	 * The remaining moves are compacted at the start of the range.
+	 * @param pos The position the moves were generated for
+	 * @param moves The buffer that holds the moves
+	 * @param start The first index of the range
+	 * @param end The index after the last move of the range
+	 * @return The index after the last legal move
+	 */
+	public static int filterLegal(Position pos, int[] moves, int start, int end) {
+		int n = start;
+		for (int i = start; i < end; ++i) {
+			if (isLegal(pos, moves[i])) {
+				moves[n++] = moves[i];
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Method that determines if a pseudo legal move leaves the own king safe.
+	 * The move is not played, the occupancy after the move is computed instead.
+	 * @param pos The position the move was generated for
+	 * @param move The packed move
+	 * @return true|false
+	 */
+	public static boolean isLegal(Position pos, int move) {
+		int us = pos.sideToMove;
+		int from = Move.from(move);
+		int to = Move.to(move);
+		int flag = Move.flag(move);
+		long fromBit = 1L << from;
+		long toBit = 1L << to;
+		long removed = toBit;
+
+		if (flag == Move.EN_PASSANT) {
+			removed |= 1L << (us == Position.WHITE ? to + 8 : to - 8);
+		}
+		boolean kingMoves = Position.typeOf(pos.squares[from]) == Position.KING;
+		int king = kingMoves ? to : pos.kingSquare(us);
+		if (kingMoves && pos.isSquareAttacked(to, us ^ 1)) {
+			return false;
+		}
+		// A piece that is not on a line with its king can't expose it
+		if (
+			!kingMoves && flag != Move.EN_PASSANT && !pos.isSquareAttacked(king, us ^ 1) &&
+			(Attacks.queenAttacks(king, 0L) & fromBit) == 0
+		) {
+			return true;
+		}
+		long occupied = (pos.allPieces & ~fromBit & ~removed) | toBit;
+		long attackers = pos.attackersTo(king, us ^ 1, occupied);
+		return (attackers & ~removed) == 0;
+	}
+
+	/**
+	 * Generates pushes, captures, promotions and en passant captures of all pawns
+	 * @param pos The position to generate moves for
+	 * @param moves The buffer to write the moves to
+	 * @param n The first index to write to
+	 * @return The index after the last move written
+	 */
+	private static int generatePawnMoves(Position pos, int[] moves, int n) {
+		int us = pos.sideToMove;
+		long enemy = pos.occupancy[us ^ 1];
+		long empty = ~pos.allPieces;
+		// White pawns walk towards square 0, black pawns towards square 63
+		int forward = us == Position.WHITE ? -8 : 8;
+		int startRow = us == Position.WHITE ? 6 : 1;
+		int lastRow = us == Position.WHITE ? 0 : 7;
+		long pawns = pos.pieces(us, Position.PAWN);
+
+		while (pawns != 0) {
+			int from = Long.numberOfTrailingZeros(pawns);
+			pawns &= pawns - 1;
+			int one = from + forward;
+			boolean promotes = Position.rowOf(one) == lastRow;
+
+			if ((empty & (1L << one)) != 0) {
+				if (promotes) {
+					n = addPromotions(moves, n, from, one, false);
+				} else {
+					moves[n++] = Move.encode(from, one, Move.QUIET);
+					int two = one + forward;
+					if (Position.rowOf(from) == startRow && (empty & (1L << two)) != 0) {
+						moves[n++] = Move.encode(from, two, Move.DOUBLE_PAWN_PUSH);
+					}
+				}
+			}
+			long captures = Attacks.pawnAttacks(us, from);
+			long targets = captures & enemy;
+			while (targets != 0) {
+				int to = Long.numberOfTrailingZeros(targets);
+				targets &= targets - 1;
+				if (promotes) {
+					n = addPromotions(moves, n, from, to, true);
+				} else {
+					moves[n++] = Move.encode(from, to, Move.CAPTURE);
+				}
+			}
+			int ep = pos.enPassantSquare;
+			if (ep != Position.NO_SQUARE && (captures & (1L << ep)) != 0) {
+				moves[n++] = Move.encode(from, ep, Move.EN_PASSANT);
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Adds the four promotion moves of a pawn, queen first
+	 * @param moves The buffer to write the moves to
+	 * @param n The first index to write to
+	 * @param from The source square
+	 * @param to The target square
+	 * @param capture Flag to determine if the promotion captures a piece
+	 * @return The index after the last move written
+	 */
+	private static int addPromotions(int[] moves, int n, int from, int to, boolean capture) {
+		moves[n++] = Move.encodePromotion(from, to, Position.QUEEN, capture);
+		moves[n++] = Move.encodePromotion(from, to, Position.ROOK, capture);
+		moves[n++] = Move.encodePromotion(from, to, Position.BISHOP, capture);
+		moves[n++] = Move.encodePromotion(from, to, Position.KNIGHT, capture);
+		return n;
+	}
+
+	/**
+	 * Generates the moves of all knights in "knights"
+	 * @param knights The squares of the knights
+	 * @param own The squares of the side to move
+	 * @param enemy The squares of the opponent
+	 * @param moves The buffer to write the moves to
+	 * @param n The first index to write to
+	 * @return The index after the last move written
+	 */
+	private static int generateKnightMoves(long knights, long own, long enemy, int[] moves, int n) {
+		while (knights != 0) {
+			int from = Long.numberOfTrailingZeros(knights);
+			knights &= knights - 1;
+			n = addMoves(moves, n, from, Attacks.knightAttacks(from) & ~own, enemy);
+		}
+		return n;
+	}
+
+	/**
+	 * Generates the moves of all bishops in "bishops"
+	 * @param pos The position to generate moves for
+	 * @param bishops The squares of the bishops
+	 * @param own The squares of the side to move
+	 * @param enemy The squares of the opponent
+	 * @param moves The buffer to write the moves to
+	 * @param n The first index to write to
+	 * @return The index after the last move written
+	 */
+	private static int generateBishopMoves(
+		Position pos, long bishops, long own, long enemy, int[] moves, int n
+	) {
+		while (bishops != 0) {
+			int from = Long.numberOfTrailingZeros(bishops);
+			bishops &= bishops - 1;
+			long targets = Attacks.bishopAttacks(from, pos.allPieces) & ~own;
+			n = addMoves(moves, n, from, targets, enemy);
+		}
+		return n;
+	}
+
+	/**
+	 * Generates the moves of all rooks in "rooks"
+	 * @param pos The position to generate moves for
+	 * @param rooks The squares of the rooks
+	 * @param own The squares of the side to move
+	 * @param enemy The squares of the opponent
+	 * @param moves The buffer to write the moves to
+	 * @param n The first index to write to
+	 * @return The index after the last move written
+	 */
+	private static int generateRookMoves(
+		Position pos, long rooks, long own, long enemy, int[] moves, int n
+	) {
+		while (rooks != 0) {
+			int from = Long.numberOfTrailingZeros(rooks);
+			rooks &= rooks - 1;
+			long targets = Attacks.rookAttacks(from, pos.allPieces) & ~own;
+			n = addMoves(moves, n, from, targets, enemy);
+		}
+		return n;
+	}
+
+	/**
+	 * Generates the moves of all queens in "queens"
+	 * @param pos The position to generate moves for
+	 * @param queens The squares of the queens
+	 * @param own The squares of the side to move
+	 * @param enemy The squares of the opponent
+	 * @param moves The buffer to write the moves to
+	 * @param n The first index to write to
+	 * @return The index after the last move written
+	 */
+	private static int generateQueenMoves(
+		Position pos, long queens, long own, long enemy, int[] moves, int n
+	) {
+		while (queens != 0) {
+			int from = Long.numberOfTrailingZeros(queens);
+			queens &= queens - 1;
+			long targets = Attacks.queenAttacks(from, pos.allPieces) & ~own;
+			n = addMoves(moves, n, from, targets, enemy);
+		}
+		return n;
+	}
+
+	/**
+	 * Generates the king moves, including castling
+	 * @param pos The position to generate moves for
+	 * @param own The squares of the side to move
+	 * @param enemy The squares of the opponent
+	 * @param moves The buffer to write the moves to
+	 * @param n The first index to write to
+	 * @return The index after the last move written
+	 */
+	private static int generateKingMoves(Position pos, long own, long enemy, int[] moves, int n) {
+		int us = pos.sideToMove;
+		int from = pos.kingSquare(us);
+		if (from == Position.NO_SQUARE) {
+			return n;
+		}
+		n = addMoves(moves, n, from, Attacks.kingAttacks(from) & ~own, enemy);
+
+		int kingSide = us == Position.WHITE ? Position.WHITE_KINGSIDE : Position.BLACK_KINGSIDE;
+		int queenSide = us == Position.WHITE ? Position.WHITE_QUEENSIDE : Position.BLACK_QUEENSIDE;
+		if ((pos.castlingRights & (kingSide | queenSide)) == 0 || pos.isSquareAttacked(from, us ^ 1)) {
+			return n;
+		}
+		if (canCastle(pos, kingSide)) {
+			moves[n++] = Move.encode(from, from + 2, Move.KING_CASTLE);
+		}
+		if (canCastle(pos, queenSide)) {
+			moves[n++] = Move.encode(from, from - 2, Move.QUEEN_CASTLE);
+		}
+		return n;
+	}
+
+	/**
+	 * Method that determines if the side to move can castle to one side. The
+	 * king must not be in check, which the caller verifies, and the target
+	 * square is verified by the legal filter.
+	 * @param pos The position to check
+	 * @param right The castling bit of the side
+	 * @return true|false
+	 */
+	private static boolean canCastle(Position pos, int right) {
+		return (pos.castlingRights & right) != 0
+			&& (pos.allPieces & castlingPath[right]) == 0
+			&& !pos.isSquareAttacked(castlingPassSquare[right], pos.sideToMove ^ 1);
+	}
+
+	/**
+	 * Adds one move from "from" to every square of "targets"
+	 * @param moves The buffer to write the moves to
+	 * @param n The first index to write to
+	 * @param from The source square
+	 * @param targets The target squares
+	 * @param enemy The squares of the opponent, used to flag captures
+	 * @return The index after the last move written
+	 */
+	private static int addMoves(int[] moves, int n, int from, long targets, long enemy) {
+		while (targets != 0) {
+			int to = Long.numberOfTrailingZeros(targets);
+			targets &= targets - 1;
+			int flag = (enemy & (1L << to)) != 0 ? Move.CAPTURE : Move.QUIET;
+			moves[n++] = Move.encode(from, to, flag);
+		}
+		return n;
+	}
+}
@@ -0,0 +1,89 @@
+package chess.engine;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * Answer of the engine to one input submitted with "Engine.submitMove"
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public class MoveResult {
+	/**
+	 * Result of every input that was rejected
+	 */
+	public static final MoveResult ILLEGAL =
+		new MoveResult(false, false, GameStatus.IN_PROGRESS, "Illegal move, try again");
+
+	/**
+	 * Flag to determine if the input was accepted
+	 */
+	private final boolean legal;
+
+	/**
+	 * Flag to determine if the player to move is in check after the input
+	 */
+	private final boolean check;
+
+	/**
+	 * State of the game after the input
+	 */
+	private final GameStatus status;
+
+	/**
+	 * Text the console game shows for this result
+	 */
+	private final String message;
+
+	/**
+	 * Constructor
+	 * @param legal Flag to determine if the input was accepted
+	 * @param check Flag to determine if the player to move is in check
+	 * @param status State of the game after the input
+	 * @param message Text the console game shows for this result
+	 */
+	public MoveResult(boolean legal, boolean check, GameStatus status, String message) {
+		this.legal = legal;
+		this.check = check;
+		this.status = status;
+		this.message = message;
+	}
+
+	/**
+	 * @return true if the input was accepted, false otherwise
+	 */
+	public boolean isLegal() {
+		return legal;
+	}
+
+	/**
+	 * @return true if the player to move is in check, false otherwise
+	 */
+	public boolean isCheck() {
+		return check;
+	}
+
+	/**
+	 * @return The state of the game after the input
+	 */
+	public GameStatus getStatus() {
+		return status;
+	}
+
+	/**
+	 * @return The text the console game shows for this result, "" if none
+	 */
+	public String getMessage() {
+		return message;
+	}
+
+	/**
+	 * @return A short description of the result
+	 */
+	@Override
+	public String toString() {
+		return (legal ? "ok" : "illegal") + " " + status + (check ? " check" : "")
+			+ (message.isEmpty() ? "" : " " + message);
+	}
+}
@@ -0,0 +1,202 @@
+package chess.engine;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * Counts the leaves of the legal move tree on a ForkJoinPool. The moves of
+ * the first "splitPlies" plies become tasks, each holding its own copy of
+ * the position; below that a task counts its subtree alone, the last ply
+ * without playing the moves. An optional PerftTable shares the counts of
+ * subtrees between all tasks.
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public class ParallelPerft {
+	/**
+	 * The threads counting
+	 */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Counts of subtrees shared by the tasks, or null
+	 */
+	private final PerftTable table;
+
+	/**
+	 * Number of plies whose moves are split into tasks
+	 */
+	private final int splitPlies;
+
+	/**
+	 * Leaves counted and nanoseconds spent counting by each thread, by name.
+	 * Every thread only writes its own entry.
+	 */
+	private final Map<String, long[]> threadStats = new ConcurrentHashMap<String, long[]>();
+
+	/**
+	 * Constructor
+	 * @param threads The number of threads
+	 * @param hashMb The size of the table of subtree counts, 0 for none
+	 * @param splitPlies The number of plies whose moves are split into tasks,
+	 * at least 1
+	 */
+	public ParallelPerft(int threads, int hashMb, int splitPlies) {
+		this.pool = new ForkJoinPool(Math.max(1, threads));
+		this.table = hashMb > 0 ? new PerftTable(hashMb) : null;
+		this.splitPlies = Math.max(1, splitPlies);
+	}
+
+	/**
+	 * Counts the leaves of the legal move tree. The position is unchanged.
+	 * @param pos The position
+	 * @param depth The number of plies to search
+	 * @return The number of leaves
+	 */
+	public long perft(Position pos, int depth) {
+		Position copy = new Position();
+		copy.copyFrom(pos);
+		return pool.invoke(new PerftTask(copy, depth, splitPlies));
+	}
+
+	/**
+	 * @return The table of subtree counts, or null
+	 */
+	public PerftTable getTable() {
+		return table;
+	}
+
+	/**
+	 * Prints the leaves counted by each thread and its speed while counting
+	 * @param out The stream to print to
+	 */
+	public void printThreadStats(PrintStream out) {
+		for (Map.Entry<String, long[]> e : new TreeMap<String, long[]>(threadStats).entrySet()) {
+			long nodes = e.getValue()[0];
+			long ms = Math.max(1L, e.getValue()[1] / 1000000L);
+			out.println(e.getKey() + ": " + nodes + " nodes, " + ms + " ms, "
+				+ nodes * 1000L / ms + " nodes/second");
+		}
+		if (table != null) {
+			long probes = table.getProbes();
+			out.println("Hash hits: " + table.getHits() + " of " + probes + " lookups");
+		}
+	}
+
+	/**
+	 * Stops the threads
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Counts the subtree of one position
+	 */
+	private class PerftTask extends RecursiveTask<Long> {
+		/**
+		 * Serialization id, tasks are never serialized
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The position of this task, owned by it
+		 */
+		private final transient Position pos;
+
+		/**
+		 * The number of plies left
+		 */
+		private final int depth;
+
+		/**
+		 * The number of plies left whose moves are split into tasks
+		 */
+		private final int split;
+
+		/**
+		 * Constructor
+		 * @param pos The position, owned by the task
+		 * @param depth The number of plies left
+		 * @param split The number of plies left whose moves are split into tasks
+		 */
+		PerftTask(Position pos, int depth, int split) {
+			this.pos = pos;
+			this.depth = depth;
+			this.split = split;
+		}
+
+		/**
+		 * @return The number of leaves of the subtree
+		 */
+		@Override
+		protected Long compute() {
+			if (split == 0 || depth <= 2) {
+				long start = System.nanoTime();
+				long nodes = count(depth, new int[Math.max(1, depth)][MoveGenerator.MAX_MOVES], 0);
+				long[] stats = threadStats.computeIfAbsent(Thread.currentThread().getName(), k -> new long[2]);
+				stats[0] += nodes;
+				stats[1] += System.nanoTime() - start;
+				return nodes;
+			}
+			int[] list = new int[MoveGenerator.MAX_MOVES];
+			int n = MoveGenerator.generateLegal(pos, list, 0);
+			PerftTask[] tasks = new PerftTask[n];
+			for (int i = 0; i < n; ++i) {
+				Position child = new Position();
+				child.copyFrom(pos);
+				child.makeMove(list[i]);
+				tasks[i] = new PerftTask(child, depth - 1, split - 1);
+			}
+			invokeAll(tasks);
+			long nodes = 0L;
+			for (PerftTask task : tasks) {
+				nodes += task.join();
+			}
+			return nodes;
+		}
+
+		/**
+		 * Recursive counter, the last ply is counted without playing the moves
+		 * @param depth The number of plies left
+		 * @param moves One move buffer per ply
+		 * @param ply The distance from the root of the task, selects the buffer
+		 * @return The number of leaves
+		 */
+		private long count(int depth, int[][] moves, int ply) {
+			if (depth == 0) {
+				return 1L;
+			}
+			long hash = pos.hash;
+			if (table != null && depth > 1) {
+				long nodes = table.probe(hash, depth);
+				if (nodes >= 0L) {
+					return nodes;
+				}
+			}
+			int[] list = moves[ply];
+			int n = MoveGenerator.generateLegal(pos, list, 0);
+			if (depth == 1) {
+				return n;
+			}
+			long nodes = 0L;
+			for (int i = 0; i < n; ++i) {
+				pos.makeMove(list[i]);
+				nodes += count(depth - 1, moves, ply + 1);
+				pos.unmakeMove();
+			}
+			if (table != null) {
+				table.store(hash, depth, nodes);
+			}
+			return nodes;
+		}
+	}
+}
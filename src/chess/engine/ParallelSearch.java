@@ -0,0 +1,254 @@
+package chess.engine;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * Lazy SMP: the same position is searched by several threads at once. Every
+ * helper thread searches its own copy of the position with its own stacks,
+ * killers and pawn cache. The only thing the threads share is the
+ * transposition table, so each thread finds the results of the others
+ * there and they spread over different parts of the tree. The main search
+ * runs on the calling thread, applies the limits and reports the
+ * iterations; when it returns, the helpers are stopped and its move is
+ * played.
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public class ParallelSearch {
+	/**
+	 * Most threads a search can use
+	 */
+	public static final int MAX_THREADS = 256;
+
+	/**
+	 * The position to search, searched by the main search
+	 */
+	private final Position root;
+
+	/**
+	 * Transposition table shared by all threads
+	 */
+	private final TranspositionTable table;
+
+	/**
+	 * One search per thread, index 0 is the main search
+	 */
+	private Search[] searches;
+
+	/**
+	 * Threads running the helpers of the current search
+	 */
+	private Thread[] helpers;
+
+	/**
+	 * Receives the iterations of the main search with the nodes of all threads
+	 */
+	private SearchListener listener;
+
+	/**
+	 * Constructor, searches on a single thread until "setThreads" is called
+	 * @param root The position to search
+	 */
+	public ParallelSearch(Position root) {
+		this(root, new TranspositionTable(TranspositionTable.DEFAULT_MB));
+	}
+
+	/**
+	 * Constructor, searches on a single thread until "setThreads" is called
+	 * @param root The position to search
+	 * @param table The transposition table shared by the threads
+	 */
+	public ParallelSearch(Position root, TranspositionTable table) {
+		this.root = root;
+		this.table = table;
+		this.searches = new Search[] {new Search(root, table)};
+		this.helpers = new Thread[0];
+	}
+
+	/**
+	 * Sets the number of threads. Must not be called while searching.
+	 * @param threads The number of threads, including the calling one
+	 */
+	public void setThreads(int threads) {
+		int n = Math.max(1, Math.min(threads, MAX_THREADS));
+		Search[] old = searches;
+		searches = new Search[n];
+		for (int i = 0; i < n; ++i) {
+			if (i < old.length) {
+				searches[i] = old[i];
+			} else {
+				searches[i] = new Search(new Position(), table);
+				searches[i].setHelperIndex(i);
+			}
+		}
+		helpers = new Thread[n - 1];
+		setListener(listener);
+	}
+
+	/**
+	 * @return The number of threads, including the calling one
+	 */
+	public int getThreads() {
+		return searches.length;
+	}
+
+	/**
+	 * @param listener Receives every iteration of the main search with the
+	 * nodes of all threads, or null
+	 */
+	public void setListener(SearchListener listener) {
+		this.listener = listener;
+		if (listener == null) {
+			searches[0].setListener(null);
+		} else {
+			searches[0].setListener((depth, score, nodes, millis, pv, pvLength) ->
+				listener.iterationDone(depth, score, getNodes(), millis, pv, pvLength));
+		}
+	}
+
+	/**
+	 * Searches the position on all threads
+	 * @param depth The deepest iteration to search
+	 * @param maxNodes Maximum number of positions all threads visit together,
+	 * 0 for no limit
+	 * @param timeMillis Maximum time to search in milliseconds, 0 for no limit
+	 * @return The best move of the main search, or Move.NONE if there are no
+	 * legal moves
+	 */
+	public int bestMove(int depth, long maxNodes, long timeMillis) {
+		Search main = searches[0];
+		main.clearStop();
+		table.newSearch();
+		for (int i = 1; i < searches.length; ++i) {
+			Search helper = searches[i];
+			helper.getPosition().copyFrom(root);
+			helper.clearStop();
+			helpers[i - 1] = new Thread(() -> helper.run(depth, 0L, 0L), "search-" + i);
+			helpers[i - 1].setDaemon(true);
+			helpers[i - 1].start();
+		}
+		// The main search only counts its own nodes, the threads search at
+		// about the same speed
+		int move = main.run(depth, maxNodes == 0L ? 0L : Math.max(1L, maxNodes / searches.length), timeMillis);
+		for (int i = 1; i < searches.length; ++i) {
+			searches[i].stop();
+		}
+		for (Thread helper : helpers) {
+			joinUninterruptibly(helper);
+		}
+		return move;
+	}
+
+	/**
+	 * Asks all threads of a running search to return as soon as possible
+	 */
+	public void stop() {
+		for (Search search : searches) {
+			search.stop();
+		}
+	}
+
+	/**
+	 * @param thread The thread to wait for
+	 */
+	private static void joinUninterruptibly(Thread thread) {
+		boolean interrupted = false;
+		while (thread.isAlive()) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * @param thread The thread index, 0 for the main search
+	 * @return The search of the thread, holding its nodes, depth and caches
+	 */
+	public Search getSearch(int thread) {
+		return searches[thread];
+	}
+
+	/**
+	 * @return The transposition table shared by the threads
+	 */
+	public TranspositionTable getTable() {
+		return table;
+	}
+
+	/**
+	 * @return The number of positions visited by all threads
+	 */
+	public long getNodes() {
+		long nodes = 0L;
+		for (Search search : searches) {
+			nodes += search.getNodes();
+		}
+		return nodes;
+	}
+
+	/**
+	 * @return The time spent by the last search in milliseconds
+	 */
+	public long getElapsedMillis() {
+		return searches[0].getElapsedMillis();
+	}
+
+	/**
+	 * @return The number of positions visited per second by all threads
+	 */
+	public long getNodesPerSecond() {
+		return getNodes() * 1000L / Math.max(1L, getElapsedMillis());
+	}
+
+	/**
+	 * @return The score of the best move of the last search, from the side to move
+	 */
+	public int getScore() {
+		return searches[0].getScore();
+	}
+
+	/**
+	 * @return The last depth the main search completed
+	 */
+	public int getDepth() {
+		return searches[0].getDepth();
+	}
+
+	/**
+	 * @return The principal variation of the main search
+	 */
+	public int[] getPrincipalVariation() {
+		return searches[0].getPrincipalVariation();
+	}
+
+	/**
+	 * @return The percentage of pawn cache lookups that hit, over all threads
+	 */
+	public double getPawnCacheHitRate() {
+		long hits = 0L;
+		long lookups = 0L;
+		for (Search search : searches) {
+			PawnCache cache = search.getEvaluation().getPawnCache();
+			hits += cache.getHits();
+			lookups += cache.getHits() + cache.getMisses();
+		}
+		return lookups == 0L ? 0.0 : 100.0 * hits / lookups;
+	}
+
+	/**
+	 * Sets the statistics of the table and of the pawn caches back to 0
+	 */
+	public void resetStatistics() {
+		table.resetStatistics();
+		for (Search search : searches) {
+			search.getEvaluation().getPawnCache().resetStatistics();
+		}
+	}
+}
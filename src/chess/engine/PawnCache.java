@@ -0,0 +1,147 @@
+package chess.engine;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * Remembers the pawn structure scores of positions by their pawn hash.
+ * Pawns move far less often than the other pieces, so most positions of a
+ * search share their pawns with one evaluated before. Each entry holds the
+ * key, the middlegame and endgame scores and the passed pawns, in parallel
+ * primitive arrays. A new entry replaces the old one of its slot. The cache
+ * belongs to one Evaluation and is not shared between threads.
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public class PawnCache {
+	/**
+	 * Number of entries when none is given
+	 */
+	public static final int DEFAULT_ENTRIES = 1 << 14;
+
+	/**
+	 * Pawn hash of each entry
+	 */
+	final long[] keys;
+
+	/**
+	 * Middlegame pawn structure score of each entry, white minus black
+	 */
+	final int[] mgScores;
+
+	/**
+	 * Endgame pawn structure score of each entry, white minus black
+	 */
+	final int[] egScores;
+
+	/**
+	 * Passed pawns of both colors of each entry
+	 */
+	final long[] passedPawns;
+
+	/**
+	 * Number of entries minus one, the slot of a key is "key & mask"
+	 */
+	private final int mask;
+
+	/**
+	 * Number of lookups that found their pawns
+	 */
+	private long hits;
+
+	/**
+	 * Number of lookups that had to compute the pawn structure
+	 */
+	private long misses;
+
+	/**
+	 * Constructor. The empty slots hold key 0, the key of a board without
+	 * pawns, and scores of 0, which is the score of a board without pawns.
+	 * @param entries The number of entries, rounded down to a power of two
+	 */
+	public PawnCache(int entries) {
+		int size = Integer.highestOneBit(Math.max(1, entries));
+		this.keys = new long[size];
+		this.mgScores = new int[size];
+		this.egScores = new int[size];
+		this.passedPawns = new long[size];
+		this.mask = size - 1;
+	}
+
+	/**
+	 * @param key The pawn hash
+	 * @return The slot the key is stored in
+	 */
+	int slot(long key) {
+		return (int)key & mask;
+	}
+
+	/**
+	 * Method that determines if a slot holds the pawns of a key, and counts
+	 * the hit or miss
+	 * @param slot The slot of the key
+	 * @param key The pawn hash
+	 * @return true|false
+	 */
+	boolean lookup(int slot, long key) {
+		if (keys[slot] == key) {
+			++hits;
+			return true;
+		}
+		++misses;
+		return false;
+	}
+
+	/**
+	 * Fills a slot
+	 * @param slot The slot of the key
+	 * @param key The pawn hash
+	 * @param mg The middlegame score
+	 * @param eg The endgame score
+	 * @param passed The passed pawns of both colors
+	 */
+	void store(int slot, long key, int mg, int eg, long passed) {
+		keys[slot] = key;
+		mgScores[slot] = mg;
+		egScores[slot] = eg;
+		passedPawns[slot] = passed;
+	}
+
+	/**
+	 * @return The number of entries
+	 */
+	public int size() {
+		return keys.length;
+	}
+
+	/**
+	 * @return The number of lookups that found their pawns
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return The number of lookups that had to compute the pawn structure
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return The percentage of lookups that found their pawns
+	 */
+	public double getHitRate() {
+		long n = hits + misses;
+		return n == 0L ? 0.0 : 100.0 * hits / n;
+	}
+
+	/**
+	 * Sets the hit and miss counters back to 0
+	 */
+	public void resetStatistics() {
+		hits = 0L;
+		misses = 0L;
+	}
+}
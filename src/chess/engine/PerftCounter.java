@@ -0,0 +1,147 @@
+package chess.engine;
+
+import java.io.PrintStream;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * Counts the leaves of the legal move tree of a board ("perft"). The counts
+ * of the standard reference positions are known, so any difference points
+ * to a bug in the move rules.
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public class PerftCounter {
+	/**
+	 * FEN of the starting position
+	 */
+	public static final String START_FEN =
+		"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+	/**
+	 * FEN strings of the standard reference positions
+	 */
+	public static final String[] referenceFens = {
+		START_FEN,
+		"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+		"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+		"r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+		"rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+		"r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10"
+	};
+
+	/**
+	 * Expected node counts of the reference positions, from depth 1 upwards
+	 */
+	public static final long[][] referenceCounts = {
+		{20L, 400L, 8902L, 197281L, 4865609L, 119060324L},
+		{48L, 2039L, 97862L, 4085603L, 193690690L},
+		{14L, 191L, 2812L, 43238L, 674624L, 11030083L},
+		{6L, 264L, 9467L, 422333L, 15833292L},
+		{44L, 1486L, 62379L, 2103487L, 89941194L},
+		{46L, 2079L, 89890L, 3894594L, 164075551L}
+	};
+
+	/**
+	 * The board the moves are played on
+	 */
+	private final Board board;
+
+	/**
+	 * One move buffer per ply, so no memory is allocated while counting
+	 */
+	private int[][] moves = new int[0][];
+
+	/**
+	 * Constructor
+	 * @param board The board to count the moves of
+	 */
+	public PerftCounter(Board board) {
+		this.board = board;
+	}
+
+	/**
+	 * @return The board the moves are played on
+	 */
+	public Board getBoard() {
+		return board;
+	}
+
+	/**
+	 * Counts the leaves of the legal move tree
+	 * @param depth The number of plies to search
+	 * @return The number of leaves
+	 */
+	public long perft(int depth) {
+		ensureBuffers(depth);
+		return count(depth, 0);
+	}
+
+	/**
+	 * Counts the leaves below each legal move and prints them as "e2e4: 20"
+	 * @param depth The number of plies to search
+	 * @param out The stream to print to
+	 * @return The total number of leaves
+	 */
+	public long divide(int depth, PrintStream out) {
+		if (depth < 1) {
+			return 1L;
+		}
+		ensureBuffers(depth);
+		int[] list = moves[0];
+		int n = MoveGenerator.generateLegal(board.position, list, 0);
+		long total = 0L;
+		for (int i = 0; i < n; ++i) {
+			board.makeMove(list[i]);
+			long nodes = count(depth - 1, 1);
+			board.unmakeMove();
+			out.println(Move.toString(list[i]) + ": " + nodes);
+			total += nodes;
+		}
+		out.println();
+		out.println("Moves: " + n);
+		out.println("Nodes: " + total);
+		return total;
+	}
+
+	/**
+	 * Recursive counter, the last ply is counted without playing the moves
+	 * @param depth The number of plies left
+	 * @param ply The distance from the root, selects the move buffer
+	 * @return The number of leaves
+	 */
+	private long count(int depth, int ply) {
+		if (depth == 0) {
+			return 1L;
+		}
+		int[] list = moves[ply];
+		int n = MoveGenerator.generateLegal(board.position, list, 0);
+		if (depth == 1) {
+			return n;
+		}
+		long nodes = 0L;
+		for (int i = 0; i < n; ++i) {
+			board.makeMove(list[i]);
+			nodes += count(depth - 1, ply + 1);
+			board.unmakeMove();
+		}
+		return nodes;
+	}
+
+	/**
+	 * Makes sure there is a move buffer for every ply up to "depth"
+	 * @param depth The number of plies to search
+	 */
+	private void ensureBuffers(int depth) {
+		if (moves.length >= depth) {
+			return;
+		}
+		int[][] grown = new int[depth][];
+		for (int i = 0; i < depth; ++i) {
+			grown[i] = i < moves.length ? moves[i] : new int[MoveGenerator.MAX_MOVES];
+		}
+		moves = grown;
+	}
+}
@@ -0,0 +1,92 @@
+package chess.engine;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * Remembers the leaf counts of perft subtrees by the Zobrist hash of their
+ * root and their depth, so a position reached by different move orders is
+ * only counted once. Like TranspositionTable, an entry is two longs, the
+ * key XOR the data and the data, written without locks; a torn entry reads
+ * as a miss. The data is the count shifted left by 8 bits plus the depth.
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public class PerftTable {
+	/**
+	 * The entries, two longs each
+	 */
+	private final long[] table;
+
+	/**
+	 * Number of entries minus one, the entry of a hash is "hash & mask"
+	 */
+	private final int mask;
+
+	/**
+	 * Number of lookups that found their subtree
+	 */
+	private final LongAdder hits = new LongAdder();
+
+	/**
+	 * Number of lookups
+	 */
+	private final LongAdder probes = new LongAdder();
+
+	/**
+	 * Constructor
+	 * @param megabytes The size of the table, rounded down to a power of two
+	 */
+	public PerftTable(int megabytes) {
+		long entries = Long.highestOneBit(Math.min((Math.max(1L, megabytes) << 20) / 16L, 1L << 29));
+		this.table = new long[(int)entries * 2];
+		this.mask = (int)entries - 1;
+	}
+
+	/**
+	 * Looks up a subtree
+	 * @param hash The Zobrist hash of the root of the subtree
+	 * @param depth The depth of the subtree
+	 * @return The number of leaves, or -1 if the subtree isn't in the table
+	 */
+	public long probe(long hash, int depth) {
+		int i = ((int)hash & mask) * 2;
+		long data = table[i + 1];
+		probes.increment();
+		if ((table[i] ^ data) == hash && (int)(data & 0xFF) == depth) {
+			hits.increment();
+			return data >>> 8;
+		}
+		return -1L;
+	}
+
+	/**
+	 * Stores the leaf count of a subtree, replacing the entry there
+	 * @param hash The Zobrist hash of the root of the subtree
+	 * @param depth The depth of the subtree
+	 * @param nodes The number of leaves
+	 */
+	public void store(long hash, int depth, long nodes) {
+		int i = ((int)hash & mask) * 2;
+		long data = nodes << 8 | depth;
+		table[i] = hash ^ data;
+		table[i + 1] = data;
+	}
+
+	/**
+	 * @return The number of lookups that found their subtree
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return The number of lookups
+	 */
+	public long getProbes() {
+		return probes.sum();
+	}
+}
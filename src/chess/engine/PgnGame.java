@@ -0,0 +1,101 @@
+package chess.engine;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * One game read from a PGN file: the tag pairs, the moves in Standard
+ * Algebraic Notation and the result. The same instance is refilled for every
+ * game so reading a large file doesn't keep earlier games in memory.
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public class PgnGame {
+	/**
+	 * Tag pairs of the game, in the order they were read
+	 */
+	private final Map<String, String> tags = new LinkedHashMap<String, String>();
+
+	/**
+	 * Moves of the main line in Standard Algebraic Notation
+	 */
+	private final List<String> moves = new ArrayList<String>();
+
+	/**
+	 * Result token at the end of the movetext, "*" if there was none
+	 */
+	private String result = "*";
+
+	/**
+	 * Removes the tags, moves and result of the previous game
+	 */
+	public void clear() {
+		tags.clear();
+		moves.clear();
+		result = "*";
+	}
+
+	/**
+	 * @return true if nothing was read into this game, false otherwise
+	 */
+	public boolean isEmpty() {
+		return tags.isEmpty() && moves.isEmpty();
+	}
+
+	/**
+	 * @param name The name of the tag
+	 * @return The value of the tag, or null if the game doesn't have it
+	 */
+	public String getTag(String name) {
+		return tags.get(name);
+	}
+
+	/**
+	 * @return The tag pairs of the game
+	 */
+	public Map<String, String> getTags() {
+		return tags;
+	}
+
+	/**
+	 * @return The moves of the main line in Standard Algebraic Notation
+	 */
+	public List<String> getMoves() {
+		return moves;
+	}
+
+	/**
+	 * @return The result token of the game
+	 */
+	public String getResult() {
+		return result;
+	}
+
+	/**
+	 * @param name The name of the tag
+	 * @param value The value of the tag
+	 */
+	void putTag(String name, String value) {
+		tags.put(name, value);
+	}
+
+	/**
+	 * @param san The move in Standard Algebraic Notation
+	 */
+	void addMove(String san) {
+		moves.add(san);
+	}
+
+	/**
+	 * @param result The result token of the game
+	 */
+	void setResult(String result) {
+		this.result = result;
+	}
+}
@@ -0,0 +1,238 @@
+package chess.engine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * Streaming PGN parser. Games are read one at a time straight from the
+ * stream, so memory only depends on the size of the current game and not
+ * on the size of the file. Comments, variations and numeric annotations are
+ * skipped, only the main line is kept.
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public class PgnReader {
+	/**
+	 * The stream the games are read from
+	 */
+	private final Reader in;
+
+	/**
+	 * Character pushed back by "unread", or -2 if there is none
+	 */
+	private int pushedBack = -2;
+
+	/**
+	 * Buffer for the token being read, reused for every token
+	 */
+	private final StringBuilder token = new StringBuilder(32);
+
+	/**
+	 * Constructor
+	 * @param in The stream to read the games from
+	 */
+	public PgnReader(Reader in) {
+		this.in = in instanceof BufferedReader ? in : new BufferedReader(in, 1 << 16);
+	}
+
+	/**
+	 * Reads the next game from the stream
+	 * @param game The game to fill, its previous contents are removed
+	 * @return true if a game was read, false at the end of the stream
+	 * @throws IOException If the stream can't be read
+	 */
+	public boolean readGame(PgnGame game) throws IOException {
+		game.clear();
+		boolean inMovetext = false;
+		int c;
+		while ((c = read()) != -1) {
+			if (Character.isWhitespace(c)) {
+				continue;
+			}
+			switch (c) {
+				case '[':
+					if (inMovetext) {
+						// Next game started without a result token
+						unread(c);
+						return true;
+					}
+					readTag(game);
+					break;
+				case '{':
+					skipUntil('}');
+					break;
+				case ';':
+				case '%':
+					skipUntil('\n');
+					break;
+				case '(':
+					skipVariation();
+					break;
+				case '$':
+					readToken(c);
+					break;
+				default:
+					inMovetext = true;
+					if (readMovetext(game, c)) {
+						return true;
+					}
+					break;
+			}
+		}
+		return !game.isEmpty();
+	}
+
+	/**
+	 * Closes the stream
+	 * @throws IOException If the stream can't be closed
+	 */
+	public void close() throws IOException {
+		in.close();
+	}
+
+	/**
+	 * Reads a movetext token: a move number, a move or a result
+	 * @param game The game the token belongs to
+	 * @param first The first character of the token
+	 * @return true if the token was the result, which ends the game
+	 * @throws IOException If the stream can't be read
+	 */
+	private boolean readMovetext(PgnGame game, int first) throws IOException {
+		readToken(first);
+		String s = token.toString();
+		if (s.equals("1-0") || s.equals("0-1") || s.equals("1/2-1/2") || s.equals("*")) {
+			game.setResult(s);
+			return true;
+		}
+		// Skip move numbers, which may be glued to the move as in "1.e4"
+		int i = 0;
+		while (i < s.length() && Character.isDigit(s.charAt(i))) {
+			++i;
+		}
+		if (i > 0 && i < s.length() && s.charAt(i) == '.') {
+			while (i < s.length() && s.charAt(i) == '.') {
+				++i;
+			}
+			s = s.substring(i);
+		} else if (s.startsWith("..")) {
+			s = "";
+		}
+		if (!s.isEmpty()) {
+			game.addMove(s);
+		}
+		return false;
+	}
+
+	/**
+	 * Reads a tag pair such as [White "Kasparov"], the "[" was already read
+	 * @param game The game the tag belongs to
+	 * @throws IOException If the stream can't be read
+	 */
+	private void readTag(PgnGame game) throws IOException {
+		int c = read();
+		while (c != -1 && Character.isWhitespace(c)) {
+			c = read();
+		}
+		token.setLength(0);
+		while (c != -1 && !Character.isWhitespace(c) && c != '"' && c != ']') {
+			token.append((char)c);
+			c = read();
+		}
+		String name = token.toString();
+		while (c != -1 && c != '"' && c != ']') {
+			c = read();
+		}
+		token.setLength(0);
+		if (c == '"') {
+			c = read();
+			while (c != -1 && c != '"') {
+				if (c == '\\') {
+					c = read();
+				}
+				if (c != -1) {
+					token.append((char)c);
+				}
+				c = read();
+			}
+			while (c != -1 && c != ']') {
+				c = read();
+			}
+		}
+		game.putTag(name, token.toString());
+	}
+
+	/**
+	 * Reads characters into "token" until a delimiter is found
+	 * @param first The first character of the token
+	 * @throws IOException If the stream can't be read
+	 */
+	private void readToken(int first) throws IOException {
+		token.setLength(0);
+		token.append((char)first);
+		int c;
+		while ((c = read()) != -1) {
+			if (Character.isWhitespace(c) || "{}()[];$".indexOf(c) >= 0) {
+				unread(c);
+				break;
+			}
+			token.append((char)c);
+		}
+	}
+
+	/**
+	 * Skips a variation, including nested variations and comments
+	 * @throws IOException If the stream can't be read
+	 */
+	private void skipVariation() throws IOException {
+		int depth = 1;
+		int c;
+		while (depth > 0 && (c = read()) != -1) {
+			if (c == '(') {
+				++depth;
+			} else if (c == ')') {
+				--depth;
+			} else if (c == '{') {
+				skipUntil('}');
+			} else if (c == ';') {
+				skipUntil('\n');
+			}
+		}
+	}
+
+	/**
+	 * Skips characters up to and including "end"
+	 * @param end The last character to skip
+	 * @throws IOException If the stream can't be read
+	 */
+	private void skipUntil(int end) throws IOException {
+		int c;
+		while ((c = read()) != -1 && c != end) {
+			// skip
+		}
+	}
+
+	/**
+	 * @return The next character, or -1 at the end of the stream
+	 * @throws IOException If the stream can't be read
+	 */
+	private int read() throws IOException {
+		if (pushedBack != -2) {
+			int c = pushedBack;
+			pushedBack = -2;
+			return c;
+		}
+		return in.read();
+	}
+
+	/**
+	 * @param c The character to return from the next "read"
+	 */
+	private void unread(int c) {
+		pushedBack = c;
+	}
+}
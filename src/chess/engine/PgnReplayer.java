@@ -0,0 +1,213 @@
+package chess.engine;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * Plays the moves of PGN games on a board. Moves in Standard Algebraic
+ * Notation are resolved against the legal moves of the generator, so a
+ * game is only accepted if every move follows the rules of the pieces. The
+ * same board is reused for every game.
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public class PgnReplayer {
+	/**
+	 * The board the games are played on
+	 */
+	private final Board board;
+
+	/**
+	 * Buffer for the legal moves of the current position
+	 */
+	private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+	/**
+	 * Number of moves played in the last game
+	 */
+	private int plies;
+
+	/**
+	 * Error of the last game, or null if all its moves were legal
+	 */
+	private String error;
+
+	/**
+	 * Final status of the last game: "checkmate", "stalemate" or null
+	 */
+	private String status;
+
+	/**
+	 * Constructor
+	 */
+	public PgnReplayer() {
+		this.board = new Engine().getBoard();
+	}
+
+	/**
+	 * Plays all moves of a game, starting from its FEN tag if it has one
+	 * @param game The game to play
+	 * @return true if every move was legal, false otherwise
+	 */
+	public boolean replay(PgnGame game) {
+		plies = 0;
+		error = null;
+		status = null;
+		String fen = game.getTag("FEN");
+		try {
+			board.loadFen(fen != null ? fen : PerftCounter.START_FEN);
+		} catch (IllegalArgumentException e) {
+			error = e.getMessage();
+			return false;
+		}
+		for (String san : game.getMoves()) {
+			if (board.ply >= Position.MAX_PLY) {
+				error = "Game is longer than " + Position.MAX_PLY + " plies";
+				return false;
+			}
+			int move = parseSan(san);
+			if (move == Move.NONE) {
+				error = "Illegal or ambiguous move at ply " + (plies + 1) + ": " + san;
+				return false;
+			}
+			board.makeMove(move);
+			++plies;
+		}
+		Position position = board.position;
+		if (MoveGenerator.generateLegal(position, moves, 0) == 0) {
+			status = position.isInCheck(position.sideToMove) ? "checkmate" : "stalemate";
+		}
+		return true;
+	}
+
+	/**
+	 * Finds the legal move of the current position written as "san". Moves
+	 * in coordinate notation like "e2e4" or "e7e8q" are accepted as well.
+	 * @param san The move in Standard Algebraic Notation
+	 * @return The packed move, or Move.NONE if no legal move or more than one matches
+	 */
+	public int parseSan(String san) {
+		int len = san.length();
+		while (len > 0 && "+#!?".indexOf(san.charAt(len - 1)) >= 0) {
+			--len;
+		}
+		if (len < 2) {
+			return Move.NONE;
+		}
+		Position pos = board.position;
+		int n = MoveGenerator.generateLegal(pos, moves, 0);
+
+		// Castling
+		if (san.startsWith("O-O") || san.startsWith("0-0")) {
+			int flag = len == 5 ? Move.QUEEN_CASTLE : Move.KING_CASTLE;
+			for (int i = 0; i < n; ++i) {
+				if (Move.flag(moves[i]) == flag) {
+					return moves[i];
+				}
+			}
+			return Move.NONE;
+		}
+
+		// Moving piece, pawns have no letter
+		int type = Position.PAWN;
+		int start = 0;
+		int letter = "NBRQK".indexOf(san.charAt(0));
+		if (letter >= 0) {
+			type = Position.KNIGHT + letter;
+			start = 1;
+		}
+
+		// Promotion, written as "e8=Q", "e8Q" or "e7e8q"
+		int promotion = -1;
+		if (type == Position.PAWN) {
+			int p = "nbrq".indexOf(Character.toLowerCase(san.charAt(len - 1)));
+			if (p >= 0) {
+				promotion = Position.KNIGHT + p;
+				--len;
+				if (len > 0 && san.charAt(len - 1) == '=') {
+					--len;
+				}
+			}
+		}
+		if (len - start < 2) {
+			return Move.NONE;
+		}
+
+		// Target square and optional source file and rank
+		int toY = Board.fileLetters.indexOf(san.charAt(len - 2));
+		int toX = Board.rankNumbers.indexOf(san.charAt(len - 1));
+		if (toY < 0 || toX < 0) {
+			return Move.NONE;
+		}
+		int to = Position.square(toX, toY);
+		int fromY = -1;
+		int fromX = -1;
+		for (int i = start; i < len - 2; ++i) {
+			char c = san.charAt(i);
+			if (Board.fileLetters.indexOf(c) >= 0) {
+				fromY = Board.fileLetters.indexOf(c);
+			} else if (Board.rankNumbers.indexOf(c) >= 0) {
+				fromX = Board.rankNumbers.indexOf(c);
+			} else if (c != 'x' && c != '-' && c != ':') {
+				return Move.NONE;
+			}
+		}
+		// A full source square is coordinate notation, any piece can move
+		boolean anyType = start == 0 && fromX >= 0 && fromY >= 0;
+
+		int found = Move.NONE;
+		for (int i = 0; i < n; ++i) {
+			int m = moves[i];
+			int from = Move.from(m);
+			if (Move.to(m) != to
+				|| (!anyType && (Position.typeOf(pos.squares[from]) != type || Move.isCastling(m)))
+				|| (fromY >= 0 && Position.columnOf(from) != fromY)
+				|| (fromX >= 0 && Position.rowOf(from) != fromX)
+				|| (Move.isPromotion(m) ? Move.promotionType(m) != promotion : promotion != -1)) {
+				continue;
+			}
+			if (found != Move.NONE) {
+				return Move.NONE;
+			}
+			found = m;
+		}
+		return found;
+	}
+
+	/**
+	 * @return The board the games are played on
+	 */
+	public Board getBoard() {
+		return board;
+	}
+
+	/**
+	 * @return The number of moves played in the last game
+	 */
+	public int getPlies() {
+		return plies;
+	}
+
+	/**
+	 * @param ply The index of a move of the last game
+	 * @return The packed move played at "ply"
+	 */
+	public int getMove(int ply) {
+		return board.position.moveStack[ply];
+	}
+
+	/**
+	 * @return The error of the last game, or null if all its moves were legal
+	 */
+	public String getError() {
+		return error;
+	}
+
+	/**
+	 * @return "checkmate" or "stalemate" if the last game ended that way, null otherwise
+	 */
+	public String getStatus() {
+		return status;
+	}
+}
@@ -0,0 +1,1085 @@
+package chess.engine;
+
+import chess.pieces.Bishop;
+import chess.pieces.King;
+import chess.pieces.Knight;
+import chess.pieces.Pawn;
+import chess.pieces.Piece;
+import chess.pieces.Queen;
+import chess.pieces.Rook;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * Bitboard representation of the game. Every square is numbered
+ * "x * 8 + y" using the same rank/file indexes as the 2D board array, so
+ * square 0 is a8 and square 63 is h1. Bit "n" of a bitboard is set when
+ * square "n" is part of the set.
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public class Position {
+	/**
+	 * Piece type of a pawn
+	 */
+	public static final int PAWN = 0;
+
+	/**
+	 * Piece type of a knight
+	 */
+	public static final int KNIGHT = 1;
+
+	/**
+	 * Piece type of a bishop
+	 */
+	public static final int BISHOP = 2;
+
+	/**
+	 * Piece type of a rook
+	 */
+	public static final int ROOK = 3;
+
+	/**
+	 * Piece type of a queen
+	 */
+	public static final int QUEEN = 4;
+
+	/**
+	 * Piece type of a king
+	 */
+	public static final int KING = 5;
+
+	/**
+	 * Color index of white
+	 */
+	public static final int WHITE = 0;
+
+	/**
+	 * Color index of black
+	 */
+	public static final int BLACK = 1;
+
+	/**
+	 * Value stored in a square that holds no piece
+	 */
+	public static final int EMPTY = -1;
+
+	/**
+	 * Value used when there is no square (i.e. no en passant target)
+	 */
+	public static final int NO_SQUARE = -1;
+
+	/**
+	 * Castling right: white king side
+	 */
+	public static final int WHITE_KINGSIDE = 1;
+
+	/**
+	 * Castling right: white queen side
+	 */
+	public static final int WHITE_QUEENSIDE = 2;
+
+	/**
+	 * Castling right: black king side
+	 */
+	public static final int BLACK_KINGSIDE = 4;
+
+	/**
+	 * Castling right: black queen side
+	 */
+	public static final int BLACK_QUEENSIDE = 8;
+
+	/**
+	 * Size of the undo stack, i.e. the deepest nesting of "makeMove" calls
+	 */
+	public static final int MAX_PLY = 1024;
+
+	/**
+	 * Room in the piece list of each piece code. Two knights, bishops or rooks
+	 * plus eight promoted pawns is the most a side can have.
+	 */
+	static final int LIST_SIZE = 10;
+
+	/**
+	 * Rights that remain after a piece moves from or to each square.
+	 * Only the king and rook starting squares clear anything.
+	 */
+	private static final int[] castlingMask = new int[64];
+
+	static {
+		for (int i = 0; i < 64; ++i) {
+			castlingMask[i] = 15;
+		}
+		castlingMask[0] &= ~BLACK_QUEENSIDE;
+		castlingMask[4] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+		castlingMask[7] &= ~BLACK_KINGSIDE;
+		castlingMask[56] &= ~WHITE_QUEENSIDE;
+		castlingMask[60] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+		castlingMask[63] &= ~WHITE_KINGSIDE;
+	}
+
+	/**
+	 * One bitboard per piece, indexed by "color * 6 + type"
+	 */
+	final long[] pieces = new long[12];
+
+	/**
+	 * All squares occupied by each color
+	 */
+	final long[] occupancy = new long[2];
+
+	/**
+	 * All occupied squares
+	 */
+	long allPieces;
+
+	/**
+	 * Piece code ("color * 6 + type") on every square, or EMPTY
+	 */
+	final int[] squares = new int[64];
+
+	/**
+	 * Squares attacked by the piece on each square, 0 for empty squares
+	 */
+	final long[] attacksFrom = new long[64];
+
+	/**
+	 * Number of pieces attacking each square, indexed by "color * 64 + square"
+	 */
+	final int[] attackCounts = new int[128];
+
+	/**
+	 * Squares attacked at least once by each color
+	 */
+	final long[] attacked = new long[2];
+
+	/**
+	 * Square of the king of each color, or NO_SQUARE
+	 */
+	final int[] kingSquares = new int[2];
+
+	/**
+	 * Squares of the pieces of each piece code, LIST_SIZE entries per code
+	 */
+	final int[] pieceLists = new int[12 * LIST_SIZE];
+
+	/**
+	 * Number of pieces in the piece list of each piece code
+	 */
+	final int[] pieceCounts = new int[12];
+
+	/**
+	 * Index in the piece list of the piece on each square
+	 */
+	final int[] listIndex = new int[64];
+
+	/**
+	 * Color that has to move next
+	 */
+	int sideToMove = WHITE;
+
+	/**
+	 * Castling rights still available, combination of the castling bits
+	 */
+	int castlingRights;
+
+	/**
+	 * Square a pawn can capture en passant into, or NO_SQUARE
+	 */
+	int enPassantSquare = NO_SQUARE;
+
+	/**
+	 * Number of half moves since the last capture or pawn move
+	 */
+	int halfmoveClock;
+
+	/**
+	 * Number of the current full move, starts at 1
+	 */
+	int fullmoveNumber = 1;
+
+	/**
+	 * Zobrist hash of the position, updated with every change
+	 */
+	long hash;
+
+	/**
+	 * Zobrist hash of the pawns alone, updated when a pawn is added,
+	 * removed or moved
+	 */
+	long pawnHash;
+
+	/**
+	 * Middlegame material and piece-square score, white minus black
+	 */
+	int mgScore;
+
+	/**
+	 * Endgame material and piece-square score, white minus black
+	 */
+	int egScore;
+
+	/**
+	 * Game phase of the pieces on the board, Evaluation.MAX_PHASE at the start
+	 */
+	int phase;
+
+	/**
+	 * Number of moves on the undo stack
+	 */
+	int ply;
+
+	/**
+	 * Undo stack: moves played with "makeMove"
+	 */
+	final int[] moveStack = new int[MAX_PLY];
+
+	/**
+	 * Undo stack: code of the piece captured by each move, or EMPTY
+	 */
+	final int[] capturedStack = new int[MAX_PLY];
+
+	/**
+	 * Undo stack: castling rights before each move
+	 */
+	final int[] castlingStack = new int[MAX_PLY];
+
+	/**
+	 * Undo stack: en passant square before each move
+	 */
+	final int[] enPassantStack = new int[MAX_PLY];
+
+	/**
+	 * Undo stack: halfmove clock before each move
+	 */
+	final int[] halfmoveStack = new int[MAX_PLY];
+
+	/**
+	 * Undo stack: hash before each move
+	 */
+	final long[] hashStack = new long[MAX_PLY];
+
+	/**
+	 * Constructor, creates an empty position
+	 */
+	public Position() {
+		clear();
+	}
+
+	/**
+	 * Removes every piece and resets all game state
+	 */
+	public void clear() {
+		for (int i = 0; i < pieces.length; ++i) {
+			pieces[i] = 0L;
+		}
+		for (int i = 0; i < squares.length; ++i) {
+			squares[i] = EMPTY;
+			attacksFrom[i] = 0L;
+		}
+		for (int i = 0; i < attackCounts.length; ++i) {
+			attackCounts[i] = 0;
+		}
+		attacked[WHITE] = 0L;
+		attacked[BLACK] = 0L;
+		kingSquares[WHITE] = NO_SQUARE;
+		kingSquares[BLACK] = NO_SQUARE;
+		for (int i = 0; i < pieceCounts.length; ++i) {
+			pieceCounts[i] = 0;
+		}
+		occupancy[WHITE] = 0L;
+		occupancy[BLACK] = 0L;
+		allPieces = 0L;
+		sideToMove = WHITE;
+		castlingRights = 0;
+		enPassantSquare = NO_SQUARE;
+		halfmoveClock = 0;
+		fullmoveNumber = 1;
+		ply = 0;
+		hash = 0L;
+		pawnHash = 0L;
+		mgScore = 0;
+		egScore = 0;
+		phase = 0;
+	}
+
+	/**
+	 * Makes this position a copy of another one, including its undo stack,
+	 * so moves can be searched on the copy while the original is unchanged
+	 * @param other The position to copy
+	 */
+	public void copyFrom(Position other) {
+		System.arraycopy(other.pieces, 0, pieces, 0, pieces.length);
+		System.arraycopy(other.occupancy, 0, occupancy, 0, occupancy.length);
+		System.arraycopy(other.squares, 0, squares, 0, squares.length);
+		System.arraycopy(other.attacksFrom, 0, attacksFrom, 0, attacksFrom.length);
+		System.arraycopy(other.attackCounts, 0, attackCounts, 0, attackCounts.length);
+		System.arraycopy(other.attacked, 0, attacked, 0, attacked.length);
+		System.arraycopy(other.kingSquares, 0, kingSquares, 0, kingSquares.length);
+		System.arraycopy(other.pieceLists, 0, pieceLists, 0, pieceLists.length);
+		System.arraycopy(other.pieceCounts, 0, pieceCounts, 0, pieceCounts.length);
+		System.arraycopy(other.listIndex, 0, listIndex, 0, listIndex.length);
+		allPieces = other.allPieces;
+		sideToMove = other.sideToMove;
+		castlingRights = other.castlingRights;
+		enPassantSquare = other.enPassantSquare;
+		halfmoveClock = other.halfmoveClock;
+		fullmoveNumber = other.fullmoveNumber;
+		hash = other.hash;
+		pawnHash = other.pawnHash;
+		mgScore = other.mgScore;
+		egScore = other.egScore;
+		phase = other.phase;
+		ply = other.ply;
+		System.arraycopy(other.moveStack, 0, moveStack, 0, ply);
+		System.arraycopy(other.capturedStack, 0, capturedStack, 0, ply);
+		System.arraycopy(other.castlingStack, 0, castlingStack, 0, ply);
+		System.arraycopy(other.enPassantStack, 0, enPassantStack, 0, ply);
+		System.arraycopy(other.halfmoveStack, 0, halfmoveStack, 0, ply);
+		System.arraycopy(other.hashStack, 0, hashStack, 0, ply);
+	}
+
+	/**
+	 * Rebuilds this position from the 2D board array. Castling rights are taken
+	 * from the "hasMoved" flags of kings and rooks on their starting squares and
+	 * the en passant square from an enemy pawn that just moved 2 squares.
+	 * @param board The 2D array that holds the chess board and all pieces
+	 * @param whiteToMove Flag to determine if it's white's turn
+	 */
+	public void load(Piece[][] board, boolean whiteToMove) {
+		clear();
+		for (int x = 0; x < 8; ++x) {
+			for (int y = 0; y < 8; ++y) {
+				if (board[x][y] != null) {
+					addPiece(square(x, y), pieceCode(board[x][y]));
+				}
+			}
+		}
+		sideToMove = whiteToMove ? WHITE : BLACK;
+		castlingRights = 0;
+		if (hasNotMoved(board[7][4], WHITE, KING)) {
+			if (hasNotMoved(board[7][7], WHITE, ROOK)) { castlingRights |= WHITE_KINGSIDE; }
+			if (hasNotMoved(board[7][0], WHITE, ROOK)) { castlingRights |= WHITE_QUEENSIDE; }
+		}
+		if (hasNotMoved(board[0][4], BLACK, KING)) {
+			if (hasNotMoved(board[0][7], BLACK, ROOK)) { castlingRights |= BLACK_KINGSIDE; }
+			if (hasNotMoved(board[0][0], BLACK, ROOK)) { castlingRights |= BLACK_QUEENSIDE; }
+		}
+		// Only the opponent of the side to move can have just moved 2 squares
+		int x = whiteToMove ? 3 : 4;
+		for (int y = 0; y < 8; ++y) {
+			Piece p = board[x][y];
+			if (p instanceof Pawn && p.isWhite() != whiteToMove && ((Pawn)p).justMoved2Squares()) {
+				enPassantSquare = square(whiteToMove ? x - 1 : x + 1, y);
+			}
+		}
+		hash = Zobrist.compute(this);
+	}
+
+	/**
+	 * Method used to determine if "p" is an unmoved piece of the given color and type
+	 * @param p The piece to check
+	 * @param color The expected color
+	 * @param type The expected type
+	 * @return true|false
+	 */
+	private boolean hasNotMoved(Piece p, int color, int type) {
+		return p != null && pieceCode(p) == code(color, type) && !p.hasMoved();
+	}
+
+	/**
+	 * Builds the packed move of the piece on "from" moving to "to". Captures,
+	 * en passant, castling and double pawn pushes are detected from the
+	 * current state.
+	 * @param from The source square
+	 * @param to The target square
+	 * @param promotionType The piece type a pawn reaching the last rank becomes
+	 * @return The packed move
+	 */
+	public int toMove(int from, int to, int promotionType) {
+		int type = typeOf(squares[from]);
+		boolean capture = squares[to] != EMPTY;
+		if (type == PAWN) {
+			int row = rowOf(to);
+			if (row == 0 || row == 7) {
+				return Move.encodePromotion(from, to, promotionType, capture);
+			}
+			if (to == enPassantSquare) {
+				return Move.encode(from, to, Move.EN_PASSANT);
+			}
+			if (to - from == 16 || from - to == 16) {
+				return Move.encode(from, to, Move.DOUBLE_PAWN_PUSH);
+			}
+		} else if (type == KING && (to - from == 2 || from - to == 2)) {
+			return Move.encode(from, to, to > from ? Move.KING_CASTLE : Move.QUEEN_CASTLE);
+		}
+		return Move.encode(from, to, capture ? Move.CAPTURE : Move.QUIET);
+	}
+
+	/**
+	 * Updates the position after the piece on "from" moved to "to", without
+	 * recording it on the undo stack. Promoted pawns become queens, a different
+	 * piece is set afterwards with "replacePiece".
+	 * @param from The source square
+	 * @param to The target square
+	 */
+	public void applyMove(int from, int to) {
+		play(toMove(from, to, QUEEN));
+		assert isConsistent() : "Incremental state differs after " + Move.squareName(from) + Move.squareName(to);
+	}
+
+	/**
+	 * Plays a move and records what is needed to take it back on the undo stack
+	 * @param move The packed move
+	 */
+	public void makeMove(int move) {
+		moveStack[ply] = move;
+		castlingStack[ply] = castlingRights;
+		enPassantStack[ply] = enPassantSquare;
+		halfmoveStack[ply] = halfmoveClock;
+		hashStack[ply] = hash;
+		capturedStack[ply] = play(move);
+		++ply;
+		assert isConsistent() : "Incremental state differs after " + Move.toString(move);
+	}
+
+	/**
+	 * Takes back the last move played with "makeMove"
+	 */
+	public void unmakeMove() {
+		--ply;
+		int move = moveStack[ply];
+		int from = Move.from(move);
+		int to = Move.to(move);
+		int flag = Move.flag(move);
+		int captured = capturedStack[ply];
+
+		sideToMove ^= 1;
+		if (sideToMove == BLACK) {
+			--fullmoveNumber;
+		}
+		if (Move.isPromotion(move)) {
+			removePiece(to);
+			addPiece(from, code(sideToMove, PAWN));
+		} else {
+			movePiece(to, from);
+		}
+		if (flag == Move.KING_CASTLE) {
+			movePiece(to - 1, to + 1);
+		} else if (flag == Move.QUEEN_CASTLE) {
+			movePiece(to + 1, to - 2);
+		}
+		if (captured != EMPTY) {
+			addPiece(capturedSquare(move, sideToMove), captured);
+		}
+		castlingRights = castlingStack[ply];
+		enPassantSquare = enPassantStack[ply];
+		halfmoveClock = halfmoveStack[ply];
+		hash = hashStack[ply];
+		assert isConsistent() : "Incremental state differs after taking back " + Move.toString(move);
+	}
+
+	/**
+	 * Changes the position for a move
+	 * @param move The packed move
+	 * @return The code of the captured piece, or EMPTY
+	 */
+	private int play(int move) {
+		int from = Move.from(move);
+		int to = Move.to(move);
+		int flag = Move.flag(move);
+		int moving = squares[from];
+		int captured = EMPTY;
+		long enPassantKey = enPassantKey();
+
+		if (Move.isCapture(move)) {
+			int sq = capturedSquare(move, sideToMove);
+			captured = squares[sq];
+			removePiece(sq);
+		}
+		if (Move.isPromotion(move)) {
+			removePiece(from);
+			addPiece(to, code(sideToMove, Move.promotionType(move)));
+		} else {
+			movePiece(from, to);
+		}
+		// Castling, the rook jumps over the king
+		if (flag == Move.KING_CASTLE) {
+			movePiece(to + 1, to - 1);
+		} else if (flag == Move.QUEEN_CASTLE) {
+			movePiece(to - 2, to + 1);
+		}
+
+		hash ^= enPassantKey ^ Zobrist.castling(castlingRights) ^ Zobrist.SIDE_KEY;
+		enPassantSquare = flag == Move.DOUBLE_PAWN_PUSH ? (from + to) / 2 : NO_SQUARE;
+		castlingRights &= castlingMask[from] & castlingMask[to];
+		hash ^= Zobrist.castling(castlingRights);
+		halfmoveClock = (typeOf(moving) == PAWN || captured != EMPTY) ? 0 : halfmoveClock + 1;
+		if (sideToMove == BLACK) {
+			++fullmoveNumber;
+		}
+		sideToMove ^= 1;
+		hash ^= enPassantKey();
+		return captured;
+	}
+
+	/**
+	 * The en passant square only changes the moves of a position when a pawn
+	 * of the side to move can capture there, only then it is hashed. So the
+	 * position after a double push nobody can take hashes like the same
+	 * position reached by other moves.
+	 * @return The Zobrist key of the en passant square, or 0
+	 */
+	long enPassantKey() {
+		if (
+			enPassantSquare == NO_SQUARE
+			|| (Attacks.pawnAttacks(sideToMove ^ 1, enPassantSquare) & pieces(sideToMove, PAWN)) == 0
+		) {
+			return 0L;
+		}
+		return Zobrist.enPassant(enPassantSquare);
+	}
+
+	/**
+	 * @param move The packed move
+	 * @param color The color of the side making the move
+	 * @return The square of the piece the move captures
+	 */
+	static int capturedSquare(int move, int color) {
+		int to = Move.to(move);
+		if (Move.flag(move) != Move.EN_PASSANT) {
+			return to;
+		}
+		// Captured pawn sits behind the target square
+		return color == WHITE ? to + 8 : to - 8;
+	}
+
+	/**
+	 * Replaces the piece on "sq" (used when a pawn is promoted)
+	 * @param sq The square of the piece
+	 * @param code The code of the new piece
+	 */
+	public void replacePiece(int sq, int code) {
+		if (squares[sq] != EMPTY) {
+			removePiece(sq);
+		}
+		addPiece(sq, code);
+		assert isConsistent() : "Incremental state differs after replacing " + Move.squareName(sq);
+	}
+
+	/**
+	 * Puts the piece "code" on the empty square "sq"
+	 * @param sq The square to fill
+	 * @param code The piece code
+	 */
+	void addPiece(int sq, int code) {
+		long bit = 1L << sq;
+		int color = colorOf(code);
+		squares[sq] = code;
+		hash ^= Zobrist.piece(code, sq);
+		if (typeOf(code) == PAWN) {
+			pawnHash ^= Zobrist.piece(code, sq);
+		}
+		mgScore += Evaluation.mgSquareScores[(code << 6) | sq];
+		egScore += Evaluation.egSquareScores[(code << 6) | sq];
+		phase += Evaluation.phaseWeights[typeOf(code)];
+		pieces[code] |= bit;
+		occupancy[color] |= bit;
+		allPieces |= bit;
+		if (typeOf(code) == KING) {
+			kingSquares[color] = sq;
+		}
+		listIndex[sq] = pieceCounts[code];
+		pieceLists[code * LIST_SIZE + pieceCounts[code]++] = sq;
+		updateSlidersThrough(sq);
+		setAttacks(sq, colorOf(code), pieceAttacks(sq, code));
+	}
+
+	/**
+	 * Removes the piece on "sq"
+	 * @param sq The square to empty
+	 */
+	void removePiece(int sq) {
+		int code = squares[sq];
+		int color = colorOf(code);
+		long bit = 1L << sq;
+		setAttacks(sq, color, 0L);
+		squares[sq] = EMPTY;
+		hash ^= Zobrist.piece(code, sq);
+		if (typeOf(code) == PAWN) {
+			pawnHash ^= Zobrist.piece(code, sq);
+		}
+		mgScore -= Evaluation.mgSquareScores[(code << 6) | sq];
+		egScore -= Evaluation.egSquareScores[(code << 6) | sq];
+		phase -= Evaluation.phaseWeights[typeOf(code)];
+		pieces[code] &= ~bit;
+		occupancy[color] &= ~bit;
+		allPieces &= ~bit;
+		if (typeOf(code) == KING) {
+			kingSquares[color] = NO_SQUARE;
+		}
+		// Fill the hole with the last piece of the list
+		int last = pieceLists[code * LIST_SIZE + --pieceCounts[code]];
+		pieceLists[code * LIST_SIZE + listIndex[sq]] = last;
+		listIndex[last] = listIndex[sq];
+		updateSlidersThrough(sq);
+	}
+
+	/**
+	 * Moves the piece on "from" to the empty square "to"
+	 * @param from The source square
+	 * @param to The target square
+	 */
+	void movePiece(int from, int to) {
+		int code = squares[from];
+		int color = colorOf(code);
+		long bits = (1L << from) | (1L << to);
+		setAttacks(from, color, 0L);
+		squares[from] = EMPTY;
+		squares[to] = code;
+		hash ^= Zobrist.piece(code, from) ^ Zobrist.piece(code, to);
+		if (typeOf(code) == PAWN) {
+			pawnHash ^= Zobrist.piece(code, from) ^ Zobrist.piece(code, to);
+		}
+		mgScore += Evaluation.mgSquareScores[(code << 6) | to] - Evaluation.mgSquareScores[(code << 6) | from];
+		egScore += Evaluation.egSquareScores[(code << 6) | to] - Evaluation.egSquareScores[(code << 6) | from];
+		pieces[code] ^= bits;
+		occupancy[color] ^= bits;
+		allPieces ^= bits;
+		if (typeOf(code) == KING) {
+			kingSquares[color] = to;
+		}
+		listIndex[to] = listIndex[from];
+		pieceLists[code * LIST_SIZE + listIndex[to]] = to;
+		updateSlidersThrough(from);
+		updateSlidersThrough(to);
+		setAttacks(to, color, pieceAttacks(to, code));
+	}
+
+	/**
+	 * @param sq The square of the piece
+	 * @param code The piece code
+	 * @return The squares attacked by the piece with the current occupancy
+	 */
+	private long pieceAttacks(int sq, int code) {
+		switch (typeOf(code)) {
+			case PAWN:
+				return Attacks.pawnAttacks(colorOf(code), sq);
+			case KNIGHT:
+				return Attacks.knightAttacks(sq);
+			case BISHOP:
+				return Attacks.bishopAttacks(sq, allPieces);
+			case ROOK:
+				return Attacks.rookAttacks(sq, allPieces);
+			case QUEEN:
+				return Attacks.queenAttacks(sq, allPieces);
+			default:
+				return Attacks.kingAttacks(sq);
+		}
+	}
+
+	/**
+	 * Recomputes the attacks of every sliding piece whose ray reaches "sq".
+	 * Called after the occupancy of "sq" changed, since those rays now stop
+	 * at "sq" or continue past it.
+	 * @param sq The square whose occupancy changed
+	 */
+	private void updateSlidersThrough(int sq) {
+		long queens = pieces[WHITE * 6 + QUEEN] | pieces[BLACK * 6 + QUEEN];
+		long diagonal = pieces[WHITE * 6 + BISHOP] | pieces[BLACK * 6 + BISHOP] | queens;
+		long straight = pieces[WHITE * 6 + ROOK] | pieces[BLACK * 6 + ROOK] | queens;
+		long sliders = (Attacks.bishopAttacks(sq, allPieces) & diagonal)
+			| (Attacks.rookAttacks(sq, allPieces) & straight);
+		while (sliders != 0) {
+			int from = Long.numberOfTrailingZeros(sliders);
+			sliders &= sliders - 1;
+			int code = squares[from];
+			setAttacks(from, colorOf(code), pieceAttacks(from, code));
+		}
+	}
+
+	/**
+	 * Replaces the attack set of the piece on "sq" and updates the attacker
+	 * counts of only the squares that changed
+	 * @param sq The square of the piece
+	 * @param color The color of the piece
+	 * @param attacks The new attack set, 0 when the piece leaves the square
+	 */
+	private void setAttacks(int sq, int color, long attacks) {
+		long old = attacksFrom[sq];
+		if (old == attacks) {
+			return;
+		}
+		int base = color * 64;
+		long lost = old & ~attacks;
+		long gained = attacks & ~old;
+		while (lost != 0) {
+			int target = Long.numberOfTrailingZeros(lost);
+			lost &= lost - 1;
+			if (--attackCounts[base + target] == 0) {
+				attacked[color] &= ~(1L << target);
+			}
+		}
+		while (gained != 0) {
+			int target = Long.numberOfTrailingZeros(gained);
+			gained &= gained - 1;
+			if (attackCounts[base + target]++ == 0) {
+				attacked[color] |= 1L << target;
+			}
+		}
+		attacksFrom[sq] = attacks;
+	}
+
+	/**
+	 * @param color The color of the king
+	 * @return The square of the king of "color", or NO_SQUARE
+	 */
+	public int kingSquare(int color) {
+		return kingSquares[color];
+	}
+
+	/**
+	 * @param color The color of the pieces
+	 * @param type The type of the pieces
+	 * @return The number of pieces of that color and type on the board
+	 */
+	public int pieceCount(int color, int type) {
+		return pieceCounts[code(color, type)];
+	}
+
+	/**
+	 * Used together with "pieceCount" to go over the pieces of one color and
+	 * type without scanning the board. The order changes when pieces are removed.
+	 * @param color The color of the pieces
+	 * @param type The type of the pieces
+	 * @param index The index in the piece list, from 0 to pieceCount - 1
+	 * @return The square of the piece
+	 */
+	public int pieceSquare(int color, int type, int index) {
+		return pieceLists[code(color, type) * LIST_SIZE + index];
+	}
+
+	/**
+	 * Method that determines if any piece of "byColor" attacks "sq"
+	 * @param sq The square to check
+	 * @param byColor The color of the attacking side
+	 * @return true|false
+	 */
+	public boolean isSquareAttacked(int sq, int byColor) {
+		return attackCounts[byColor * 64 + sq] != 0;
+	}
+
+	/**
+	 * @param sq The square to check
+	 * @param byColor The color of the attacking side
+	 * @return The number of pieces of "byColor" that attack "sq"
+	 */
+	public int attackerCount(int sq, int byColor) {
+		return attackCounts[byColor * 64 + sq];
+	}
+
+	/**
+	 * @param color The color of the attacking side
+	 * @return The bitboard of all squares attacked by "color"
+	 */
+	public long attackedSquares(int color) {
+		return attacked[color];
+	}
+
+	/**
+	 * @param sq The square of the piece
+	 * @return The squares attacked by the piece on "sq", 0 if it's empty
+	 */
+	public long attacksFrom(int sq) {
+		return attacksFrom[sq];
+	}
+
+	/**
+	 * Method that determines if the king of "color" is in check
+	 * @param color The color of the king
+	 * @return true|false
+	 */
+	public boolean isInCheck(int color) {
+		int king = kingSquare(color);
+		return king != NO_SQUARE && isSquareAttacked(king, color ^ 1);
+	}
+
+	/**
+	 * Finds the pieces of "byColor" that attack "sq" when the board has the
+	 * given occupancy. Used to test a move without playing it.
+	 * @param sq The square to check
+	 * @param byColor The color of the attacking side
+	 * @param occupied The occupied squares to use for sliding pieces
+	 * @return The bitboard of the attacking pieces
+	 */
+	public long attackersTo(int sq, int byColor, long occupied) {
+		int base = byColor * 6;
+		long queens = pieces[base + QUEEN];
+		long r = Attacks.pawnAttacks(byColor ^ 1, sq) & pieces[base + PAWN];
+		r |= Attacks.knightAttacks(sq) & pieces[base + KNIGHT];
+		r |= Attacks.kingAttacks(sq) & pieces[base + KING];
+		r |= Attacks.bishopAttacks(sq, occupied) & (pieces[base + BISHOP] | queens);
+		r |= Attacks.rookAttacks(sq, occupied) & (pieces[base + ROOK] | queens);
+		return r & occupied;
+	}
+
+	/**
+	 * @param sq The square to look at
+	 * @return The piece code on "sq", or EMPTY
+	 */
+	public int pieceAt(int sq) {
+		return squares[sq];
+	}
+
+	/**
+	 * @param color The color of the piece
+	 * @param type The type of the piece
+	 * @return The bitboard of all pieces of that color and type
+	 */
+	public long pieces(int color, int type) {
+		return pieces[code(color, type)];
+	}
+
+	/**
+	 * @param color The color to look up
+	 * @return The bitboard of all pieces of that color
+	 */
+	public long occupancy(int color) {
+		return occupancy[color];
+	}
+
+	/**
+	 * @return The bitboard of all occupied squares
+	 */
+	public long allPieces() {
+		return allPieces;
+	}
+
+	/**
+	 * @return The color that moves next
+	 */
+	public int sideToMove() {
+		return sideToMove;
+	}
+
+	/**
+	 * @return The castling rights still available
+	 */
+	public int castlingRights() {
+		return castlingRights;
+	}
+
+	/**
+	 * @return The en passant target square, or NO_SQUARE
+	 */
+	public int enPassantSquare() {
+		return enPassantSquare;
+	}
+
+	/**
+	 * @return The number of half moves since the last capture or pawn move
+	 */
+	public int halfmoveClock() {
+		return halfmoveClock;
+	}
+
+	/**
+	 * @return The number of the current full move
+	 */
+	public int fullmoveNumber() {
+		return fullmoveNumber;
+	}
+
+	/**
+	 * @return The Zobrist hash of the position
+	 */
+	public long hash() {
+		return hash;
+	}
+
+	/**
+	 * Method that determines if the position occurred before since the last
+	 * capture or pawn move, looking back through the moves on the undo stack
+	 * @return true|false
+	 */
+	public boolean isRepetition() {
+		int oldest = Math.max(0, ply - halfmoveClock);
+		for (int i = ply - 4; i >= oldest; i -= 2) {
+			if (hashStack[i] == hash) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return The Zobrist hash of the pawns alone
+	 */
+	public long pawnHash() {
+		return pawnHash;
+	}
+
+	/**
+	 * @return The middlegame material and piece-square score, white minus black
+	 */
+	public int middlegameScore() {
+		return mgScore;
+	}
+
+	/**
+	 * @return The endgame material and piece-square score, white minus black
+	 */
+	public int endgameScore() {
+		return egScore;
+	}
+
+	/**
+	 * @return The game phase, Evaluation.MAX_PHASE with all pieces on the
+	 * board down to 0 with only kings and pawns
+	 */
+	public int phase() {
+		return phase;
+	}
+
+	/**
+	 * Method that determines if the incremental hash and scores match the
+	 * ones computed from scratch. Called in assertions, run with "-ea" to
+	 * check every move.
+	 * @return true|false
+	 */
+	boolean isConsistent() {
+		int mg = 0;
+		int eg = 0;
+		int ph = 0;
+		for (int sq = 0; sq < 64; ++sq) {
+			int code = squares[sq];
+			if (code != EMPTY) {
+				mg += Evaluation.mgSquareScores[(code << 6) | sq];
+				eg += Evaluation.egSquareScores[(code << 6) | sq];
+				ph += Evaluation.phaseWeights[typeOf(code)];
+			}
+		}
+		return hash == Zobrist.compute(this) && pawnHash == Zobrist.computePawns(this) && mg == mgScore && eg == egScore && ph == phase;
+	}
+
+	/**
+	 * Writes the position in Forsyth-Edwards Notation
+	 * @return The FEN string of the position
+	 */
+	public String toFen() {
+		StringBuilder sb = new StringBuilder(90);
+		for (int x = 0; x < 8; ++x) {
+			int empty = 0;
+			for (int y = 0; y < 8; ++y) {
+				int code = squares[square(x, y)];
+				if (code == EMPTY) {
+					++empty;
+					continue;
+				}
+				if (empty > 0) {
+					sb.append(empty);
+					empty = 0;
+				}
+				char c = "pnbrqk".charAt(typeOf(code));
+				sb.append(colorOf(code) == WHITE ? Character.toUpperCase(c) : c);
+			}
+			if (empty > 0) {
+				sb.append(empty);
+			}
+			if (x < 7) {
+				sb.append('/');
+			}
+		}
+		sb.append(sideToMove == WHITE ? " w " : " b ");
+		if (castlingRights == 0) {
+			sb.append('-');
+		} else {
+			if ((castlingRights & WHITE_KINGSIDE) != 0) { sb.append('K'); }
+			if ((castlingRights & WHITE_QUEENSIDE) != 0) { sb.append('Q'); }
+			if ((castlingRights & BLACK_KINGSIDE) != 0) { sb.append('k'); }
+			if ((castlingRights & BLACK_QUEENSIDE) != 0) { sb.append('q'); }
+		}
+		sb.append(' ');
+		sb.append(enPassantSquare == NO_SQUARE ? "-" : Move.squareName(enPassantSquare));
+		sb.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber);
+		return sb.toString();
+	}
+
+	/**
+	 * @param x The rank (row) of the square
+	 * @param y The file (column) of the square
+	 * @return The square index
+	 */
+	public static int square(int x, int y) {
+		return x * 8 + y;
+	}
+
+	/**
+	 * @param sq The square index
+	 * @return The rank (row) of the square
+	 */
+	public static int rowOf(int sq) {
+		return sq >> 3;
+	}
+
+	/**
+	 * @param sq The square index
+	 * @return The file (column) of the square
+	 */
+	public static int columnOf(int sq) {
+		return sq & 7;
+	}
+
+	/**
+	 * @param color The color of the piece
+	 * @param type The type of the piece
+	 * @return The piece code
+	 */
+	public static int code(int color, int type) {
+		return color * 6 + type;
+	}
+
+	/**
+	 * @param code The piece code
+	 * @return The color of the piece
+	 */
+	public static int colorOf(int code) {
+		return code < 6 ? WHITE : BLACK;
+	}
+
+	/**
+	 * @param code The piece code
+	 * @return The type of the piece
+	 */
+	public static int typeOf(int code) {
+		return code < 6 ? code : code - 6;
+	}
+
+	/**
+	 * Maps a piece instance of the 2D board array to its piece code
+	 * @param p The piece
+	 * @return The piece code, or EMPTY if "p" is null
+	 */
+	public static int pieceCode(Piece p) {
+		if (p == null) {
+			return EMPTY;
+		}
+		int color = p.isWhite() ? WHITE : BLACK;
+		if (p instanceof Pawn) {
+			return code(color, PAWN);
+		} else if (p instanceof Knight) {
+			return code(color, KNIGHT);
+		} else if (p instanceof Bishop) {
+			return code(color, BISHOP);
+		} else if (p instanceof Rook) {
+			return code(color, ROOK);
+		} else if (p instanceof Queen) {
+			return code(color, QUEEN);
+		} else if (p instanceof King) {
+			return code(color, KING);
+		}
+		return EMPTY;
+	}
+}
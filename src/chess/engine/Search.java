@@ -0,0 +1,641 @@
+package chess.engine;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * Chooses a move for the side to move of a position. The search is a
+ * negamax alpha-beta search with iterative deepening: depth 1, 2, 3, ...
+ * are searched in turn, each one starting with the principal variation of
+ * the one before, until the depth, node or time limit is reached or the
+ * search is stopped from another thread. Leaves are resolved with a
+ * quiescence search over captures. Moves are played with
+ * "makeMove"/"unmakeMove" on the position itself, which is left unchanged
+ * when the search returns.
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public class Search {
+	/**
+	 * Score larger than any evaluation
+	 */
+	public static final int INFINITY = 1000000;
+
+	/**
+	 * Score of being checkmated at the root, mates further away score closer to 0
+	 */
+	public static final int MATE = 100000;
+
+	/**
+	 * Deepest search supported, including the quiescence search
+	 */
+	public static final int MAX_DEPTH = 64;
+
+	/**
+	 * Helper threads skip an iteration every "skipSizes" depths, so they
+	 * search different depths than the main thread at the same time
+	 */
+	private static final int[] skipSizes = {1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 3, 3, 4, 4, 4, 4, 4, 4, 4, 4};
+
+	/**
+	 * Offset of the skipped depths of each helper thread
+	 */
+	private static final int[] skipPhases = {0, 1, 0, 1, 2, 3, 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 5, 6, 7};
+
+	/**
+	 * Ordering score of the principal variation move
+	 */
+	private static final int PV_SCORE = 1 << 30;
+
+	/**
+	 * Ordering score of the best move stored in the transposition table
+	 */
+	private static final int HASH_MOVE_SCORE = PV_SCORE - 1;
+
+	/**
+	 * Ordering score added to captures and promotions
+	 */
+	private static final int CAPTURE_SCORE = 1 << 20;
+
+	/**
+	 * Ordering score of the killer moves
+	 */
+	private static final int KILLER_SCORE = 1 << 19;
+
+	/**
+	 * The position being searched
+	 */
+	private final Position pos;
+
+	/**
+	 * Scores the leaves of the search
+	 */
+	private final Evaluation evaluation = new Evaluation();
+
+	/**
+	 * Results of searched positions, may be shared with other searches
+	 */
+	private TranspositionTable table;
+
+	/**
+	 * Best move found in the transposition table at each ply, or Move.NONE
+	 */
+	private final int[] hashMoves = new int[MAX_DEPTH + 1];
+
+	/**
+	 * One move buffer per ply
+	 */
+	private final int[][] moves = new int[MAX_DEPTH + 1][MoveGenerator.MAX_MOVES];
+
+	/**
+	 * Ordering score of each move in "moves"
+	 */
+	private final int[][] orderScores = new int[MAX_DEPTH + 1][MoveGenerator.MAX_MOVES];
+
+	/**
+	 * Triangular principal variation table, row "ply" holds the best line
+	 * found from "ply" on
+	 */
+	private final int[][] pv = new int[MAX_DEPTH + 1][MAX_DEPTH + 1];
+
+	/**
+	 * Length of each row of "pv"
+	 */
+	private final int[] pvLength = new int[MAX_DEPTH + 1];
+
+	/**
+	 * Two quiet moves per ply that caused a beta cutoff
+	 */
+	private final int[][] killers = new int[MAX_DEPTH + 1][2];
+
+	/**
+	 * Principal variation of the last completed iteration
+	 */
+	private final int[] lastPv = new int[MAX_DEPTH + 1];
+
+	/**
+	 * Length of "lastPv"
+	 */
+	private int lastPvLength;
+
+	/**
+	 * Flag to determine if the current line still follows "lastPv"
+	 */
+	private boolean followPv;
+
+	/**
+	 * Set to stop the search as soon as possible
+	 */
+	private volatile boolean stop;
+
+	/**
+	 * Number of positions visited by the current search
+	 */
+	private long nodes;
+
+	/**
+	 * Maximum number of positions to visit, 0 for no limit
+	 */
+	private long maxNodes;
+
+	/**
+	 * Value of System.nanoTime() when the search started
+	 */
+	private long startTime;
+
+	/**
+	 * Value of System.nanoTime() when the search ended, 0 while it runs
+	 */
+	private long endTime;
+
+	/**
+	 * Value of System.nanoTime() at which the search stops, 0 for no limit
+	 */
+	private long deadline;
+
+	/**
+	 * Deepest ply the position's undo stack has room for
+	 */
+	private int plyLimit;
+
+	/**
+	 * Best move of the last completed iteration
+	 */
+	private int bestMove;
+
+	/**
+	 * Score of "bestMove"
+	 */
+	private int bestScore;
+
+	/**
+	 * Last depth searched completely
+	 */
+	private int completedDepth;
+
+	/**
+	 * Receives the result of every iteration, or null
+	 */
+	private SearchListener listener;
+
+	/**
+	 * 0 for the main search, 1 and up for the helpers of a parallel search
+	 */
+	private int helperIndex;
+
+	/**
+	 * Constructor
+	 * @param pos The position to search
+	 */
+	public Search(Position pos) {
+		this(pos, new TranspositionTable(TranspositionTable.DEFAULT_MB));
+	}
+
+	/**
+	 * Constructor
+	 * @param pos The position to search
+	 * @param table The transposition table to use
+	 */
+	public Search(Position pos, TranspositionTable table) {
+		this.pos = pos;
+		this.table = table;
+	}
+
+	/**
+	 * @return The transposition table of the search
+	 */
+	public TranspositionTable getTable() {
+		return table;
+	}
+
+	/**
+	 * @return The evaluation of the search, holding its pawn cache
+	 */
+	public Evaluation getEvaluation() {
+		return evaluation;
+	}
+
+	/**
+	 * @param table The transposition table to use from the next search on
+	 */
+	public void setTable(TranspositionTable table) {
+		this.table = table;
+	}
+
+	/**
+	 * @param listener Receives the result of every iteration, or null
+	 */
+	public void setListener(SearchListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Makes this search a helper of a parallel search, it then skips some
+	 * of the iterations
+	 * @param helperIndex 0 for the main search, 1 and up for the helpers
+	 */
+	void setHelperIndex(int helperIndex) {
+		this.helperIndex = helperIndex;
+	}
+
+	/**
+	 * @return The position searched
+	 */
+	Position getPosition() {
+		return pos;
+	}
+
+	/**
+	 * Searches the position with iterative deepening
+	 * @param depth The deepest iteration to search
+	 * @param maxNodes Maximum number of positions to visit, 0 for no limit
+	 * @param timeMillis Maximum time to search in milliseconds, 0 for no limit
+	 * @return The best move found, or Move.NONE if there are no legal moves
+	 */
+	public int bestMove(int depth, long maxNodes, long timeMillis) {
+		stop = false;
+		table.newSearch();
+		return run(depth, maxNodes, timeMillis);
+	}
+
+	/**
+	 * Clears the stop flag before the search is started on another thread,
+	 * so a stop sent before that thread runs isn't lost
+	 */
+	void clearStop() {
+		stop = false;
+	}
+
+	/**
+	 * Searches like "bestMove" but keeps the stop flag and the age of the
+	 * transposition table as they are
+	 * @param depth The deepest iteration to search
+	 * @param maxNodes Maximum number of positions to visit, 0 for no limit
+	 * @param timeMillis Maximum time to search in milliseconds, 0 for no limit
+	 * @return The best move found, or Move.NONE if there are no legal moves
+	 */
+	int run(int depth, long maxNodes, long timeMillis) {
+		nodes = 0L;
+		this.maxNodes = maxNodes;
+		startTime = System.nanoTime();
+		endTime = 0L;
+		deadline = timeMillis > 0 ? startTime + timeMillis * 1000000L : 0L;
+		plyLimit = Math.min(MAX_DEPTH, Position.MAX_PLY - pos.ply - 1);
+		bestMove = Move.NONE;
+		bestScore = 0;
+		completedDepth = 0;
+		lastPvLength = 0;
+		for (int[] k : killers) {
+			k[0] = Move.NONE;
+			k[1] = Move.NONE;
+		}
+
+		int n = MoveGenerator.generateLegal(pos, moves[0], 0);
+		if (n == 0) {
+			bestScore = pos.isInCheck(pos.sideToMove) ? -MATE : 0;
+			endTime = System.nanoTime();
+			return Move.NONE;
+		}
+		bestMove = moves[0][0];
+		int maxDepth = Math.max(1, Math.min(depth, plyLimit));
+		for (int d = 1; d <= maxDepth; ++d) {
+			if (helperIndex > 0 && d > 1 && d < maxDepth) {
+				int i = (helperIndex - 1) % skipSizes.length;
+				if (((d + pos.ply + skipPhases[i]) / skipSizes[i]) % 2 != 0) {
+					continue;
+				}
+			}
+			followPv = true;
+			int score = negamax(d, -INFINITY, INFINITY, 0);
+			// An unfinished iteration is only trusted for its first move,
+			// which is the best move of the iteration before
+			if (stop && d > 1) {
+				break;
+			}
+			if (pvLength[0] > 0) {
+				bestMove = pv[0][0];
+				bestScore = score;
+				lastPvLength = pvLength[0];
+				System.arraycopy(pv[0], 0, lastPv, 0, lastPvLength);
+			}
+			completedDepth = d;
+			if (listener != null) {
+				listener.iterationDone(d, bestScore, nodes, getElapsedMillis(), lastPv, lastPvLength);
+			}
+			// Stop early once a mate is found within the searched depth
+			if (stop || (isMateScore(score) && MATE - Math.abs(score) <= d)) {
+				break;
+			}
+		}
+		endTime = System.nanoTime();
+		return bestMove;
+	}
+
+	/**
+	 * @param score A score returned by the search
+	 * @return true if the score is a forced mate, false otherwise
+	 */
+	public static boolean isMateScore(int score) {
+		return Math.abs(score) > MATE - Position.MAX_PLY;
+	}
+
+	/**
+	 * Asks a running search to return as soon as possible
+	 */
+	public void stop() {
+		stop = true;
+	}
+
+	/**
+	 * @return The number of positions visited by the last search
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * @return The time spent by the last search in milliseconds
+	 */
+	public long getElapsedMillis() {
+		return elapsedNanos() / 1000000L;
+	}
+
+	/**
+	 * @return The number of positions visited per second by the last search
+	 */
+	public long getNodesPerSecond() {
+		long micros = Math.max(1L, elapsedNanos() / 1000L);
+		return nodes * 1000000L / micros;
+	}
+
+	/**
+	 * @return The time spent by the last or running search in nanoseconds
+	 */
+	private long elapsedNanos() {
+		return (endTime != 0L ? endTime : System.nanoTime()) - startTime;
+	}
+
+	/**
+	 * @return The score of the best move of the last search, from the side to move
+	 */
+	public int getScore() {
+		return bestScore;
+	}
+
+	/**
+	 * @return The last depth searched completely
+	 */
+	public int getDepth() {
+		return completedDepth;
+	}
+
+	/**
+	 * @return The principal variation of the last completed iteration
+	 */
+	public int[] getPrincipalVariation() {
+		int[] line = new int[lastPvLength];
+		System.arraycopy(lastPv, 0, line, 0, lastPvLength);
+		return line;
+	}
+
+	/**
+	 * Negamax search with alpha-beta pruning
+	 * @param depth The number of plies left
+	 * @param alpha Lowest score the side to move is already sure of
+	 * @param beta Highest score the opponent allows
+	 * @param ply The distance from the root
+	 * @return The score of the position from the side to move
+	 */
+	private int negamax(int depth, int alpha, int beta, int ply) {
+		pvLength[ply] = 0;
+		if (depth <= 0) {
+			followPv = false;
+			return quiesce(alpha, beta, ply);
+		}
+		if (ply > 0) {
+			++nodes;
+			if ((nodes & 1023) == 0) {
+				checkLimits();
+			}
+			if (stop) {
+				return 0;
+			}
+			// Going back to an earlier position can be repeated into a draw
+			if (pos.isRepetition()) {
+				return 0;
+			}
+		}
+		if (ply >= plyLimit) {
+			return evaluate();
+		}
+		long hash = pos.hash;
+		long entry = table.probe(hash);
+		hashMoves[ply] = TranspositionTable.move(entry);
+		if (entry != 0L && ply > 0 && TranspositionTable.depth(entry) >= depth) {
+			int score = TranspositionTable.score(entry, ply);
+			int bound = TranspositionTable.bound(entry);
+			if (bound == TranspositionTable.EXACT
+				|| (bound == TranspositionTable.LOWER && score >= beta)
+				|| (bound == TranspositionTable.UPPER && score <= alpha)) {
+				return score;
+			}
+		}
+		int[] list = moves[ply];
+		int n = MoveGenerator.generateLegal(pos, list, 0);
+		if (n == 0) {
+			return pos.isInCheck(pos.sideToMove) ? -MATE + ply : 0;
+		}
+		scoreMoves(list, n, ply);
+		int originalAlpha = alpha;
+		int best = -INFINITY;
+		int bestMoveHere = Move.NONE;
+		for (int i = 0; i < n; ++i) {
+			int move = pickMove(list, orderScores[ply], i, n);
+			pos.makeMove(move);
+			int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+			pos.unmakeMove();
+			if (stop) {
+				return best == -INFINITY ? 0 : best;
+			}
+			if (score > best) {
+				best = score;
+				bestMoveHere = move;
+			}
+			if (score > alpha) {
+				alpha = score;
+				updatePv(ply, move);
+				if (alpha >= beta) {
+					if (!Move.isCapture(move) && !Move.isPromotion(move) && killers[ply][0] != move) {
+						killers[ply][1] = killers[ply][0];
+						killers[ply][0] = move;
+					}
+					break;
+				}
+			}
+		}
+		int bound = best >= beta ? TranspositionTable.LOWER
+			: best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+		table.store(hash, bound == TranspositionTable.UPPER ? Move.NONE : bestMoveHere, depth, best, bound, ply);
+		return best;
+	}
+
+	/**
+	 * Searches captures and promotions only until the position is quiet, so
+	 * the evaluation never sees a half finished exchange. All moves are
+	 * searched when in check.
+	 * @param alpha Lowest score the side to move is already sure of
+	 * @param beta Highest score the opponent allows
+	 * @param ply The distance from the root
+	 * @return The score of the position from the side to move
+	 */
+	private int quiesce(int alpha, int beta, int ply) {
+		++nodes;
+		if ((nodes & 1023) == 0) {
+			checkLimits();
+		}
+		pvLength[ply] = 0;
+		// Quiescence doesn't probe the table, the slot may hold the move of
+		// an earlier search that would be ordered before the captures
+		hashMoves[ply] = Move.NONE;
+		if (stop) {
+			return 0;
+		}
+		boolean inCheck = pos.isInCheck(pos.sideToMove);
+		int best = -INFINITY;
+		if (!inCheck) {
+			best = evaluate();
+			if (best >= beta || ply >= plyLimit) {
+				return best;
+			}
+			if (best > alpha) {
+				alpha = best;
+			}
+		} else if (ply >= plyLimit) {
+			return evaluate();
+		}
+		int[] list = moves[ply];
+		int n = MoveGenerator.generateLegal(pos, list, 0);
+		if (n == 0) {
+			return inCheck ? -MATE + ply : 0;
+		}
+		scoreMoves(list, n, ply);
+		for (int i = 0; i < n; ++i) {
+			int move = pickMove(list, orderScores[ply], i, n);
+			if (!inCheck && !Move.isCapture(move) && !Move.isPromotion(move)) {
+				// Quiet moves are ordered last, the rest are skipped too
+				break;
+			}
+			pos.makeMove(move);
+			int score = -quiesce(-beta, -alpha, ply + 1);
+			pos.unmakeMove();
+			if (stop) {
+				return best == -INFINITY ? 0 : best;
+			}
+			if (score > best) {
+				best = score;
+			}
+			if (score > alpha) {
+				alpha = score;
+				updatePv(ply, move);
+				if (alpha >= beta) {
+					break;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Gives every move an ordering score: the principal variation move first,
+	 * then the move of the transposition table, then captures by most valuable victim and least valuable attacker,
+	 * then the killer moves, then the other quiet moves
+	 * @param list The moves
+	 * @param n The number of moves
+	 * @param ply The distance from the root
+	 */
+	private void scoreMoves(int[] list, int n, int ply) {
+		int[] scores = orderScores[ply];
+		int pvMove = followPv && ply < lastPvLength ? lastPv[ply] : Move.NONE;
+		int hashMove = hashMoves[ply];
+		boolean pvFound = false;
+		for (int i = 0; i < n; ++i) {
+			int move = list[i];
+			int score = 0;
+			if (move == pvMove) {
+				score = PV_SCORE;
+				pvFound = true;
+			} else if (move == hashMove) {
+				score = HASH_MOVE_SCORE;
+			} else if (Move.isCapture(move) || Move.isPromotion(move)) {
+				int victim = Move.flag(move) == Move.EN_PASSANT ? Position.PAWN
+					: Move.isCapture(move) ? Position.typeOf(pos.squares[Move.to(move)]) : Position.PAWN - 1;
+				int attacker = Position.typeOf(pos.squares[Move.from(move)]);
+				score = CAPTURE_SCORE + (victim + 1) * 16 - attacker;
+				if (Move.isPromotion(move)) {
+					score += Move.promotionType(move) * 64;
+				}
+			} else if (move == killers[ply][0]) {
+				score = KILLER_SCORE + 1;
+			} else if (move == killers[ply][1]) {
+				score = KILLER_SCORE;
+			}
+			scores[i] = score;
+		}
+		// Only the line of the last iteration is followed
+		followPv = pvFound;
+	}
+
+	/**
+	 * Moves the best scored move of "list[i..n)" to index "i"
+	 * @param list The moves
+	 * @param scores The ordering score of each move
+	 * @param i The first index not searched yet
+	 * @param n The number of moves
+	 * @return The move now at index "i"
+	 */
+	private static int pickMove(int[] list, int[] scores, int i, int n) {
+		int best = i;
+		for (int j = i + 1; j < n; ++j) {
+			if (scores[j] > scores[best]) {
+				best = j;
+			}
+		}
+		if (best != i) {
+			int move = list[best];
+			list[best] = list[i];
+			list[i] = move;
+			int score = scores[best];
+			scores[best] = scores[i];
+			scores[i] = score;
+		}
+		return list[i];
+	}
+
+	/**
+	 * Makes "move" followed by the line of the next ply the best line of "ply"
+	 * @param ply The distance from the root
+	 * @param move The new best move at "ply"
+	 */
+	private void updatePv(int ply, int move) {
+		pv[ply][0] = move;
+		System.arraycopy(pv[ply + 1], 0, pv[ply], 1, pvLength[ply + 1]);
+		pvLength[ply] = pvLength[ply + 1] + 1;
+	}
+
+	/**
+	 * Sets "stop" when the node or time limit is reached
+	 */
+	private void checkLimits() {
+		if ((maxNodes > 0 && nodes >= maxNodes) || (deadline != 0 && System.nanoTime() >= deadline)) {
+			stop = true;
+		}
+	}
+
+	/**
+	 * @return The static evaluation from the side to move, in centipawns
+	 */
+	private int evaluate() {
+		return evaluation.evaluate(pos);
+	}
+}
@@ -0,0 +1,23 @@
+package chess.engine;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * Receives the result of every completed iteration of a Search
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public interface SearchListener {
+	/**
+	 * Called after each depth of the iterative deepening is searched
+	 * @param depth The depth just completed
+	 * @param score The score of the best move, from the side to move
+	 * @param nodes The number of positions visited so far
+	 * @param millis The time spent so far in milliseconds
+	 * @param pv The principal variation, best move first
+	 * @param pvLength The number of moves in "pv"
+	 */
+	void iterationDone(int depth, int score, long nodes, long millis, int[] pv, int pvLength);
+}
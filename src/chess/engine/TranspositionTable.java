@@ -0,0 +1,303 @@
+package chess.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * Remembers the result of searched positions by their Zobrist hash. The
+ * table is one long array, two longs per entry: the key XOR the data, then
+ * the data. Threads read and write entries without locks, a torn entry
+ * written by two threads at once no longer XORs back to its key and reads
+ * as a miss. Entries are grouped in buckets of four, one cache line, and a
+ * new entry replaces the one of its bucket searched least deeply, entries
+ * of older searches first.
+ *
+ * The data packs the best move (bits 0-15), the depth (16-23), the bound
+ * (24-25), the age (26-31) and the score (32-63).
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public class TranspositionTable {
+	/**
+	 * Bound of a score that is exact
+	 */
+	public static final int EXACT = 3;
+
+	/**
+	 * Bound of a score that is at least the stored one (beta cutoff)
+	 */
+	public static final int LOWER = 2;
+
+	/**
+	 * Bound of a score that is at most the stored one (no move raised alpha)
+	 */
+	public static final int UPPER = 1;
+
+	/**
+	 * Size of the table when none is given, in MB
+	 */
+	public static final int DEFAULT_MB = 16;
+
+	/**
+	 * Number of entries in a bucket
+	 */
+	private static final int BUCKET_SIZE = 4;
+
+	/**
+	 * Number of different ages, the age wraps around
+	 */
+	private static final int AGES = 64;
+
+	/**
+	 * The entries, two longs each
+	 */
+	private long[] table;
+
+	/**
+	 * Number of buckets minus one, the bucket of a hash is "hash & mask"
+	 */
+	private long mask;
+
+	/**
+	 * Age of the current search, entries of other ages are replaced first
+	 */
+	private volatile int age;
+
+	/**
+	 * Number of lookups
+	 */
+	private final LongAdder probes = new LongAdder();
+
+	/**
+	 * Number of lookups that found their position
+	 */
+	private final LongAdder hits = new LongAdder();
+
+	/**
+	 * Number of entries written
+	 */
+	private final LongAdder stores = new LongAdder();
+
+	/**
+	 * Constructor
+	 * @param megabytes The size of the table, rounded down to a power of two
+	 */
+	public TranspositionTable(int megabytes) {
+		resize(megabytes);
+	}
+
+	/**
+	 * Reallocates the table, all entries are lost. Must not be called
+	 * while a search uses the table.
+	 * @param megabytes The size of the table, rounded down to a power of two
+	 */
+	public void resize(int megabytes) {
+		long bytes = Math.max(1L, megabytes) << 20;
+		// Largest power of two number of buckets that fits, 64 bytes each
+		long buckets = Long.highestOneBit(Math.min(bytes / 64L, (Integer.MAX_VALUE - 8) / (BUCKET_SIZE * 2)));
+		table = new long[(int)buckets * BUCKET_SIZE * 2];
+		mask = buckets - 1;
+		resetStatistics();
+	}
+
+	/**
+	 * Forgets every entry, i.e. for a new game
+	 */
+	public void clear() {
+		Arrays.fill(table, 0L);
+		age = 0;
+		resetStatistics();
+	}
+
+	/**
+	 * Starts a new search, entries of the searches before are replaced first
+	 */
+	public void newSearch() {
+		age = (age + 1) & (AGES - 1);
+	}
+
+	/**
+	 * Looks up a position
+	 * @param hash The Zobrist hash of the position
+	 * @return The data of the entry, or 0 if the position isn't in the table
+	 */
+	public long probe(long hash) {
+		long[] t = table;
+		int index = bucketIndex(hash);
+		probes.increment();
+		for (int i = index; i < index + BUCKET_SIZE * 2; i += 2) {
+			long data = t[i + 1];
+			if ((t[i] ^ data) == hash && data != 0L) {
+				hits.increment();
+				return data;
+			}
+		}
+		return 0L;
+	}
+
+	/**
+	 * Stores the result of a search of a position
+	 * @param hash The Zobrist hash of the position
+	 * @param move The best move, or Move.NONE
+	 * @param depth The depth the position was searched to
+	 * @param score The score of the position from the side to move
+	 * @param bound EXACT, LOWER or UPPER
+	 * @param ply The distance of the position from the root, mate scores are
+	 * stored as the distance from the position
+	 */
+	public void store(long hash, int move, int depth, int score, int bound, int ply) {
+		long[] t = table;
+		int index = bucketIndex(hash);
+		int currentAge = age;
+		int victim = index;
+		int victimValue = Integer.MAX_VALUE;
+		for (int i = index; i < index + BUCKET_SIZE * 2; i += 2) {
+			long data = t[i + 1];
+			if ((t[i] ^ data) == hash || data == 0L) {
+				// Keep the best move of a position when the new result has none
+				if (move == Move.NONE && data != 0L) {
+					move = move(data);
+				}
+				victim = i;
+				break;
+			}
+			// Older entries lose 4 plies of depth per search
+			int value = depth(data) - 4 * ((currentAge - age(data)) & (AGES - 1));
+			if (value < victimValue) {
+				victimValue = value;
+				victim = i;
+			}
+		}
+		if (Search.isMateScore(score)) {
+			score += score > 0 ? ply : -ply;
+		}
+		long data = (move & 0xFFFFL)
+			| (long)(Math.min(depth, 255) & 0xFF) << 16
+			| (long)bound << 24
+			| (long)currentAge << 26
+			| (long)score << 32;
+		t[victim] = hash ^ data;
+		t[victim + 1] = data;
+		stores.increment();
+	}
+
+	/**
+	 * @param data The data of an entry
+	 * @return The best move of the entry, or Move.NONE
+	 */
+	public static int move(long data) {
+		return (int)(data & 0xFFFFL);
+	}
+
+	/**
+	 * @param data The data of an entry
+	 * @return The depth the position was searched to
+	 */
+	public static int depth(long data) {
+		return (int)(data >>> 16) & 0xFF;
+	}
+
+	/**
+	 * @param data The data of an entry
+	 * @return EXACT, LOWER or UPPER
+	 */
+	public static int bound(long data) {
+		return (int)(data >>> 24) & 3;
+	}
+
+	/**
+	 * @param data The data of an entry
+	 * @param ply The distance of the position from the root
+	 * @return The score of the entry from the side to move, mate scores
+	 * counted from the root
+	 */
+	public static int score(long data, int ply) {
+		int score = (int)(data >> 32);
+		if (Search.isMateScore(score)) {
+			score -= score > 0 ? ply : -ply;
+		}
+		return score;
+	}
+
+	/**
+	 * @param data The data of an entry
+	 * @return The age of the search that stored the entry
+	 */
+	private static int age(long data) {
+		return (int)(data >>> 26) & (AGES - 1);
+	}
+
+	/**
+	 * @param hash The Zobrist hash of a position
+	 * @return The index in "table" of the first entry of its bucket
+	 */
+	private int bucketIndex(long hash) {
+		return (int)(hash & mask) * BUCKET_SIZE * 2;
+	}
+
+	/**
+	 * @return The size of the table in bytes
+	 */
+	public long getSizeBytes() {
+		return table.length * 8L;
+	}
+
+	/**
+	 * @return The number of lookups since the last clear
+	 */
+	public long getProbes() {
+		return probes.sum();
+	}
+
+	/**
+	 * @return The number of lookups that found their position
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return The number of entries written since the last clear
+	 */
+	public long getStores() {
+		return stores.sum();
+	}
+
+	/**
+	 * @return The percentage of lookups that found their position
+	 */
+	public double getHitRate() {
+		long n = probes.sum();
+		return n == 0L ? 0.0 : 100.0 * hits.sum() / n;
+	}
+
+	/**
+	 * Samples the first thousand entries
+	 * @return The permille of entries used by the current search
+	 */
+	public int getUsagePermille() {
+		long[] t = table;
+		int used = 0;
+		int n = Math.min(1000, t.length / 2);
+		for (int i = 0; i < n; ++i) {
+			long data = t[i * 2 + 1];
+			if (data != 0L && age(data) == age) {
+				++used;
+			}
+		}
+		return used * 1000 / n;
+	}
+
+	/**
+	 * Sets the lookup, hit and store counters back to 0
+	 */
+	public void resetStatistics() {
+		probes.reset();
+		hits.reset();
+		stores.reset();
+	}
+}
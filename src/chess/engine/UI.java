@@ -30,6 +30,11 @@ public class UI {
 	 * 2D Piece array that represents the chess board with all pieces in it
 	 */
 	Piece[][] board;
+
+	/**
+	 * Draws the board with a single write per board
+	 */
+	BoardRenderer renderer;
 	
 	/**
 	 * Constructor
@@ -38,10 +43,22 @@ public class UI {
 	 * @param e The instance of Engine
 	 */
 	public UI(Piece[][] board, Validations vals, Engine e) {
+		this(board, vals, e, BoardRenderer.FULL);
+	}
+
+	/**
+	 * Constructor
+	 * @param board The instance of Board
+	 * @param vals The instance of Validations
+	 * @param e The instance of Engine
+	 * @param renderMode One of BoardRenderer.FULL, NONE or ANSI_DIFF
+	 */
+	public UI(Piece[][] board, Validations vals, Engine e, int renderMode) {
 		this.reader = new Scanner(System.in);
 		this.board = board;
 		this.vals = vals;
 		this.engine = e;
+		this.renderer = new BoardRenderer(System.out, renderMode);
 	}
 
 	/**
@@ -49,51 +66,7 @@ public class UI {
 	 * after every move.
 	 */
 	public void drawBoard() {
-		for (int i = 0; i < board.length; ++i) {
-			for (int j = 0; j < board[i].length; ++j) {
-				if (vals.isEmptySquare(board[i][j])) {
-					drawEmptySquare(i, j);
-				} else {
-					board[i][j].draw();
-				}
-				System.out.print(" ");
-			}
-			drawYLabel(i);
-			System.out.println();
-		}
-		drawXLabels();
-	}
-
-	/**
-	 * Method that draws the respective character for an empty square on the board
-	 * @param i The row number
-	 * @param j The column number
-	 */
-	private void drawEmptySquare(int i, int j) {
-		String r = (i + j) % 2 == 0 ? "  " : "##";
-		System.out.print(r);
-	}
-	
-	/**
-	 * Draws the respective rank label to the right of row
-	 * @param i The row number used to draw label
-	 */
-	private void drawYLabel(int i) {
-		System.out.print(8 - i);
-	}
-
-	/**
-	 * Method that draws the file labels under the board
-	 */
-	private void drawXLabels() {
-		System.out.print(" a");
-		System.out.print("  b");
-		System.out.print("  c");
-		System.out.print("  d");
-		System.out.print("  e");
-		System.out.print("  f");
-		System.out.print("  g");
-		System.out.print("  h");
+		renderer.render(board);
 	}
 	
 	/**
@@ -119,6 +92,21 @@ public class UI {
 		return s;
 	}
 	
+	/**
+	 * Method that prints the prompt followed by the move the computer chose
+	 * @param whiteTurn Flag to determine if it's white's turn
+	 * @param move The move of the computer in the console syntax
+	 */
+	public void showComputerMove(boolean whiteTurn, String move) {
+		System.out.println();
+		System.out.println();
+		if (engine.whiteKingInCheck || engine.blackKingInCheck) {
+			System.out.println("Check");
+		}
+		System.out.println((whiteTurn ? "White's move: " : "Black's move: ") + move);
+		System.out.println();
+	}
+
 	/**
 	 * Method that outputs the outcome of the game at the end
 	 */
@@ -132,6 +120,10 @@ public class UI {
 			System.out.println();
 			System.out.println("Checkmate");
 			System.out.println("Black wins");
+		} else if (engine.stalemate) {
+			System.out.println();
+			System.out.println("Stalemate");
+			System.out.println("Draw");
 		} else if (engine.whiteResigned) {
 			System.out.println("Black wins");
 		} else if (engine.blackResigned) {
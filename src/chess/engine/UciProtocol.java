@@ -0,0 +1,343 @@
+package chess.engine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * Universal Chess Interface front end. The thread calling "run" only reads
+ * commands, searches run on their own thread, so "stop" and "isready" are
+ * answered while a search is running.
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public class UciProtocol {
+	/**
+	 * Depth searched when "go" doesn't give any limit
+	 */
+	public static final int DEFAULT_DEPTH = 6;
+
+	/**
+	 * Largest transposition table the "Hash" option allows, in MB
+	 */
+	public static final int MAX_HASH_MB = 4096;
+
+	/**
+	 * The stream the commands are read from
+	 */
+	private final BufferedReader in;
+
+	/**
+	 * The stream the replies are written to, shared with the search thread
+	 */
+	private final PrintStream out;
+
+	/**
+	 * The board the position of the GUI is set up on
+	 */
+	private final Board board;
+
+	/**
+	 * Search of "board", on one or more threads
+	 */
+	private final ParallelSearch search;
+
+	/**
+	 * Buffer for the legal moves when reading the moves of "position"
+	 */
+	private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+	/**
+	 * Thread of the running search, or null
+	 */
+	private Thread searchThread;
+
+	/**
+	 * Value that represents if the running search waits for "stop" before
+	 * sending its best move, set by "go infinite". Guarded by "this".
+	 */
+	private boolean waitForStop;
+
+	/**
+	 * Constructor
+	 * @param in The stream the commands are read from
+	 * @param out The stream the replies are written to
+	 */
+	public UciProtocol(InputStream in, PrintStream out) {
+		this.in = new BufferedReader(new InputStreamReader(in));
+		this.out = out;
+		this.board = new Engine().getBoard();
+		this.search = new ParallelSearch(board.position);
+		this.search.setListener((depth, score, nodes, millis, pv, pvLength) -> {
+			StringBuilder sb = new StringBuilder("info depth ").append(depth)
+				.append(" score ").append(scoreText(score))
+				.append(" nodes ").append(nodes)
+				.append(" time ").append(millis)
+				.append(" nps ").append(nodes * 1000L / Math.max(1L, millis))
+				.append(" pv");
+			for (int i = 0; i < pvLength; ++i) {
+				sb.append(' ').append(Move.toString(pv[i]).toLowerCase());
+			}
+			send(sb.toString());
+		});
+	}
+
+	/**
+	 * Reads and runs commands until "quit" or the end of the input
+	 * @throws IOException If the input can't be read
+	 */
+	public void run() throws IOException {
+		String line;
+		while ((line = in.readLine()) != null) {
+			String[] words = line.trim().split("\\s+");
+			String command = words[0];
+			if (command.equals("uci")) {
+				send("id name Java Chess");
+				send("id author Danilo Navas");
+				send("option name Hash type spin default " + TranspositionTable.DEFAULT_MB
+					+ " min 1 max " + MAX_HASH_MB);
+				send("option name Threads type spin default 1 min 1 max " + ParallelSearch.MAX_THREADS);
+				send("uciok");
+			} else if (command.equals("isready")) {
+				send("readyok");
+			} else if (command.equals("ucinewgame")) {
+				stopSearch();
+				board.loadFen(PerftCounter.START_FEN);
+				search.getTable().clear();
+			} else if (command.equals("setoption")) {
+				stopSearch();
+				setOption(words);
+			} else if (command.equals("position")) {
+				stopSearch();
+				setPosition(words);
+			} else if (command.equals("go")) {
+				stopSearch();
+				go(words);
+			} else if (command.equals("stop")) {
+				stopSearch();
+			} else if (command.equals("quit")) {
+				break;
+			}
+			// Other commands like "debug" are ignored
+		}
+		stopSearch();
+	}
+
+	/**
+	 * Runs "setoption name Hash value N" and "setoption name Threads value N"
+	 * @param words The words of the command
+	 */
+	private void setOption(String[] words) {
+		if (words.length != 5 || !words[1].equals("name") || !words[3].equals("value")) {
+			return;
+		}
+		int value;
+		try {
+			value = Integer.parseInt(words[4]);
+		} catch (NumberFormatException e) {
+			send("info string invalid " + words[2] + " value " + words[4]);
+			return;
+		}
+		if (words[2].equalsIgnoreCase("Hash")) {
+			search.getTable().resize(Math.max(1, Math.min(value, MAX_HASH_MB)));
+		} else if (words[2].equalsIgnoreCase("Threads")) {
+			search.setThreads(value);
+		}
+	}
+
+	/**
+	 * Runs "position [startpos | fen ...] [moves ...]"
+	 * @param words The words of the command
+	 */
+	private void setPosition(String[] words) {
+		int i = 1;
+		String fen = PerftCounter.START_FEN;
+		if (i < words.length && words[i].equals("fen")) {
+			StringBuilder sb = new StringBuilder();
+			for (++i; i < words.length && !words[i].equals("moves"); ++i) {
+				sb.append(words[i]).append(' ');
+			}
+			fen = sb.toString();
+		} else if (i < words.length && words[i].equals("startpos")) {
+			++i;
+		}
+		try {
+			board.loadFen(fen);
+		} catch (IllegalArgumentException e) {
+			send("info string " + e.getMessage());
+			board.loadFen(PerftCounter.START_FEN);
+			return;
+		}
+		if (i < words.length && words[i].equals("moves")) {
+			for (++i; i < words.length; ++i) {
+				int move = findMove(words[i]);
+				if (move == Move.NONE || board.ply >= Position.MAX_PLY - Search.MAX_DEPTH) {
+					send("info string illegal move " + words[i]);
+					return;
+				}
+				board.makeMove(move);
+			}
+		}
+	}
+
+	/**
+	 * @param text A move in UCI notation, i.e. "e2e4" or "e7e8q"
+	 * @return The legal move written as "text", or Move.NONE
+	 */
+	private int findMove(String text) {
+		int n = MoveGenerator.generateLegal(board.position, moves, 0);
+		for (int i = 0; i < n; ++i) {
+			if (Move.toString(moves[i]).equalsIgnoreCase(text)) {
+				return moves[i];
+			}
+		}
+		return Move.NONE;
+	}
+
+	/**
+	 * Runs "go" with its limits on the search thread
+	 * @param words The words of the command
+	 */
+	private void go(String[] words) {
+		int depth = 0;
+		long nodes = 0L;
+		long time = 0L;
+		long clock = 0L;
+		long increment = 0L;
+		int movesToGo = 30;
+		boolean infinite = false;
+		boolean white = board.position.sideToMove == Position.WHITE;
+		for (int i = 1; i < words.length; ++i) {
+			String word = words[i];
+			if (word.equals("infinite")) {
+				depth = Search.MAX_DEPTH;
+				infinite = true;
+				continue;
+			}
+			if (i + 1 >= words.length) {
+				break;
+			}
+			long value;
+			try {
+				value = Long.parseLong(words[i + 1]);
+			} catch (NumberFormatException e) {
+				continue;
+			}
+			if (word.equals("depth")) {
+				depth = (int)Math.max(1L, Math.min(value, Search.MAX_DEPTH));
+			} else if (word.equals("nodes")) {
+				nodes = value;
+			} else if (word.equals("movetime")) {
+				time = value;
+			} else if (word.equals(white ? "wtime" : "btime")) {
+				clock = value;
+			} else if (word.equals(white ? "winc" : "binc")) {
+				increment = value;
+			} else if (word.equals("movestogo")) {
+				movesToGo = (int)Math.max(1L, value);
+			} else {
+				continue;
+			}
+			++i;
+		}
+		if (time == 0L && clock > 0L) {
+			time = Math.max(1L, clock / movesToGo + increment / 2);
+		}
+		if (depth == 0) {
+			depth = time > 0L || nodes > 0L ? Search.MAX_DEPTH : DEFAULT_DEPTH;
+		}
+
+		search.resetStatistics();
+		final int searchDepth = depth;
+		final long maxNodes = nodes;
+		final long maxTime = time;
+		synchronized (this) {
+			waitForStop = infinite;
+		}
+		searchThread = new Thread(() -> {
+			int best = search.bestMove(searchDepth, maxNodes, maxTime);
+			// An infinite search may end early on a mate or at the deepest
+			// iteration, the GUI still expects the best move only after "stop"
+			awaitStop();
+			send("info nodes " + search.getNodes() + " time " + search.getElapsedMillis()
+				+ " nps " + search.getNodesPerSecond() + " hashfull " + search.getTable().getUsagePermille());
+			send(String.format("info string hash hits %.1f%% pawn hash hits %.1f%%",
+				search.getTable().getHitRate(), search.getPawnCacheHitRate()));
+			for (int i = 1; i < search.getThreads(); ++i) {
+				Search helper = search.getSearch(i);
+				send("info string thread " + i + " depth " + helper.getDepth() + " nodes " + helper.getNodes());
+			}
+			send("bestmove " + (best == Move.NONE ? "0000" : Move.toString(best).toLowerCase()));
+		}, "search");
+		searchThread.start();
+	}
+
+	/**
+	 * @param score A score returned by the search
+	 * @return The score in UCI notation, i.e. "cp 35" or "mate -2"
+	 */
+	static String scoreText(int score) {
+		if (!Search.isMateScore(score)) {
+			return "cp " + score;
+		}
+		int plies = Search.MATE - Math.abs(score);
+		return "mate " + (score > 0 ? (plies + 1) / 2 : -(plies / 2));
+	}
+
+	/**
+	 * Waits until "stop" is received if the running search is infinite
+	 */
+	private synchronized void awaitStop() {
+		boolean interrupted = false;
+		while (waitForStop) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Stops the running search and waits until it has sent its best move.
+	 * The stop is repeated in case the search thread hadn't started yet.
+	 */
+	private void stopSearch() {
+		if (searchThread == null) {
+			return;
+		}
+		synchronized (this) {
+			waitForStop = false;
+			notifyAll();
+		}
+		try {
+			while (searchThread.isAlive()) {
+				search.stop();
+				searchThread.join(10L);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		searchThread = null;
+	}
+
+	/**
+	 * Writes one line to the GUI
+	 * @param line The line to write
+	 */
+	private void send(String line) {
+		synchronized (out) {
+			out.println(line);
+			out.flush();
+		}
+	}
+}
@@ -1,6 +1,5 @@
 package chess.engine;
 
-import chess.pieces.King;
 import chess.pieces.Pawn;
 import chess.pieces.Piece;
 
@@ -115,41 +114,16 @@ public class Validations {
 	 * @return true|false
 	 */
 	private boolean moveWouldPutKingInCheck(Piece source, int targetX, int targetY) {
-		int x = source.getX();
-		int y = source.getY();
-		boolean r = false;
-		Piece[][] b = board.board;
-		King king;
-		
-		// Move piece temporarily to see if it puts the king in check
-		Piece backup = b[targetX][targetY];
-		b[x][y] = null;
-		b[targetX][targetY] = source;
-		source.updatePosition();
-		
-		for (Piece[] ps : b) {
-			for (Piece p : ps) {
-				if (p == null) {
-					continue;
-				}
-				if (source.isWhite()) {
-					king = (King)board.getWhiteKing();
-					if (p.isBlack() && p.isLegalMove(king, king.getX(), king.getY())) {
-						r = true; break;
-					}
-				} else {
-					king = (King)board.getBlackKing();
-					if (p.isWhite() && p.isLegalMove(king, king.getX(), king.getY())) {
-						r = true; break;
-					}
-				}
-			}
-		}
-		// Undo moving the piece
-		b[targetX][targetY] = backup;
-		b[x][y] = source;
-		source.rollbackPosition();
-		
+		Position position = board.position;
+		int from = Position.square(source.getX(), source.getY());
+		int to = Position.square(targetX, targetY);
+		int color = source.isWhite() ? Position.WHITE : Position.BLACK;
+
+		// Make the move temporarily to see if it puts the king in check
+		board.makeMove(position.toMove(from, to, Position.QUEEN));
+		boolean r = position.isSquareAttacked(position.kingSquare(color), color ^ 1);
+		board.unmakeMove();
+
 		return r;
 	}
 		
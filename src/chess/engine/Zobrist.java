@@ -0,0 +1,129 @@
+package chess.engine;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * Random keys of Zobrist hashing. The hash of a position is the XOR of the
+ * key of every piece on its square, the side to move key when black is to
+ * move, the key of the castling rights and the key of the en passant file
+ * when a pawn of the side to move can capture there.
+ * Position updates its hash with the same XORs as it changes, so the hash
+ * costs a few instructions per move instead of a pass over the board.
+ * The keys come from a fixed seed, hashes are the same on every run.
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public class Zobrist {
+	/**
+	 * Key of each piece code on each square, indexed by "code * 64 + square"
+	 */
+	private static final long[] pieceKeys = new long[12 * 64];
+
+	/**
+	 * Key of each combination of the castling bits
+	 */
+	private static final long[] castlingKeys = new long[16];
+
+	/**
+	 * Key of each en passant file
+	 */
+	private static final long[] enPassantKeys = new long[8];
+
+	/**
+	 * Key XORed in when black is to move
+	 */
+	static final long SIDE_KEY;
+
+	/**
+	 * State of the random number generator filling the keys
+	 */
+	private static long seed = 0x3C6EF372FE94F82BL;
+
+	static {
+		for (int i = 0; i < pieceKeys.length; ++i) {
+			pieceKeys[i] = nextKey();
+		}
+		// No castling rights leave the hash unchanged
+		for (int i = 1; i < castlingKeys.length; ++i) {
+			castlingKeys[i] = nextKey();
+		}
+		for (int i = 0; i < enPassantKeys.length; ++i) {
+			enPassantKeys[i] = nextKey();
+		}
+		SIDE_KEY = nextKey();
+	}
+
+	/**
+	 * @param code The piece code
+	 * @param sq The square of the piece
+	 * @return The key of the piece on the square
+	 */
+	static long piece(int code, int sq) {
+		return pieceKeys[(code << 6) | sq];
+	}
+
+	/**
+	 * @param rights A combination of the castling bits
+	 * @return The key of the castling rights
+	 */
+	static long castling(int rights) {
+		return castlingKeys[rights];
+	}
+
+	/**
+	 * @param sq The en passant square, or Position.NO_SQUARE
+	 * @return The key of the file of the square, 0 if there is none
+	 */
+	static long enPassant(int sq) {
+		return sq == Position.NO_SQUARE ? 0L : enPassantKeys[Position.columnOf(sq)];
+	}
+
+	/**
+	 * Computes the hash of a position from scratch, used to check the
+	 * incremental one
+	 * @param pos The position
+	 * @return The hash of the position
+	 */
+	public static long compute(Position pos) {
+		long hash = 0L;
+		for (int sq = 0; sq < 64; ++sq) {
+			if (pos.squares[sq] != Position.EMPTY) {
+				hash ^= piece(pos.squares[sq], sq);
+			}
+		}
+		if (pos.sideToMove == Position.BLACK) {
+			hash ^= SIDE_KEY;
+		}
+		return hash ^ castling(pos.castlingRights) ^ pos.enPassantKey();
+	}
+
+	/**
+	 * Computes the pawn hash of a position from scratch, used to check the
+	 * incremental one
+	 * @param pos The position
+	 * @return The XOR of the keys of the pawns of both colors
+	 */
+	public static long computePawns(Position pos) {
+		long hash = 0L;
+		for (int sq = 0; sq < 64; ++sq) {
+			int code = pos.squares[sq];
+			if (code != Position.EMPTY && Position.typeOf(code) == Position.PAWN) {
+				hash ^= piece(code, sq);
+			}
+		}
+		return hash;
+	}
+
+	/**
+	 * SplitMix64 step
+	 * @return The next random key
+	 */
+	private static long nextKey() {
+		long z = (seed += 0x9E3779B97F4A7C15L);
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -1,7 +1,8 @@
 package chess.pieces;
 
-import chess.engine.Board;
+import chess.engine.Attacks;
 import chess.engine.Engine;
+import chess.engine.Position;
 
 /**
  * Rutgers New Brunswick
@@ -107,6 +108,17 @@ public class Bishop implements Piece {
 		x = prevX;
 		y = prevY;
 	}
+
+	/**
+	 * Places this piece on the given rank and file, used by Board when
+	 * making and unmaking moves
+	 * @param x The new rank of this piece
+	 * @param y The new file of this piece
+	 */
+	public void setPosition(int x, int y) {
+		this.x = x;
+		this.y = y;
+	}
 	
 	/**
 	 * Method that can be used to determine if this piece is white
@@ -174,6 +186,14 @@ public class Bishop implements Piece {
 	public boolean hasMoved() {
 		return this.hasMoved;
 	}
+
+	/**
+	 * Method that sets local "hasMoved" flag, used to restore it when a move is unmade
+	 * @param hasMoved The new value of the flag
+	 */
+	public void setMoved(boolean hasMoved) {
+		this.hasMoved = hasMoved;
+	}
 	
 	/**
 	 * Method that determines if the next move for this piece is legal
@@ -183,14 +203,14 @@ public class Bishop implements Piece {
 	 * @return true|false
 	 */
 	public boolean isLegalMove(Piece target, int targetX, int targetY) {
-		Board b = engine.getBoard();
-		Piece[][] board = b.getBoard();
 		this.target = target;
 		this.targetX = targetX;
 		this.targetY = targetY;
-		if (SharedRules.isDiagonalMove(x, y, targetX, targetY, board, false)) {
+		Position position = engine.getBoard().getPosition();
+		long attacks = Attacks.bishopAttacks(Position.square(x, y), position.allPieces());
+		if ((attacks & (1L << Position.square(targetX, targetY))) != 0) {
 			return true;
 		}
 		return false;
-	}	
+	}
 }
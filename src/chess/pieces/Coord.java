@@ -1,30 +0,0 @@
-package chess.pieces;
-
-/**
- * Rutgers New Brunswick
- * CSC-213 (Software Methodology)
- *
- * @author Danilo Navas (den34)
- * @version 1.0
- */
-public class Coord {
-	/**
-	 * The x coordinate
-	 */
-	public int x;
-
-	/**
-	 * The y coordinate
-	 */
-	public int y;
-	
-	/**
-	 * Constructor
-	 * @param x The x coordinate
-	 * @param y The y coordinate
-	 */
-	public Coord(int x, int y) {
-		this.x = x;
-		this.y = y;
-	}
-}
@@ -1,7 +1,9 @@
 package chess.pieces;
 
+import chess.engine.Attacks;
 import chess.engine.Board;
 import chess.engine.Engine;
+import chess.engine.Position;
 
 /**
  * Rutgers New Brunswick
@@ -120,6 +122,17 @@ public class King implements Piece {
 		y = prevY;
 	}
 
+	/**
+	 * Places this piece on the given rank and file, used by Board when
+	 * making and unmaking moves
+	 * @param x The new rank of this piece
+	 * @param y The new file of this piece
+	 */
+	public void setPosition(int x, int y) {
+		this.x = x;
+		this.y = y;
+	}
+
 	/**
 	 * Method that can be used to determine if this piece is white
 	 * @return true|false
@@ -187,6 +200,14 @@ public class King implements Piece {
 		return this.hasMoved;
 	}
 
+	/**
+	 * Method that sets local "hasMoved" flag, used to restore it when a move is unmade
+	 * @param hasMoved The new value of the flag
+	 */
+	public void setMoved(boolean hasMoved) {
+		this.hasMoved = hasMoved;
+	}
+
 	/**
 	 * Method that determines if the next move for this piece is legal
 	 * @param target The target piece
@@ -198,20 +219,13 @@ public class King implements Piece {
 		this.target = target;
 		this.targetX = targetX;
 		this.targetY = targetY;
-		boolean up = targetY == y && targetX == (x-1);
-		boolean down = targetY == y && targetX == (x+1);
-		boolean left = targetX == x && targetY == (y-1);
-		boolean right = targetX == x && targetY == (y+1);
-		boolean topRight = targetX == (x-1) && targetY == (y+1);
-		boolean bottomRight = targetX == (x+1) && targetY == (y+1);
-		boolean topLeft = targetX == (x-1) && targetY == (y-1);
-		boolean bottomLeft = targetX == (x+1) && targetY == (y-1);
 		if (isCastlingMove()) {
 			return true;
 		} else {
 			rook = null;
 		}
-		if (topLeft || up || topRight || left || right || bottomLeft || down || bottomRight) {
+		long targetBit = 1L << Position.square(targetX, targetY);
+		if ((Attacks.kingAttacks(Position.square(x, y)) & targetBit) != 0) {
 			return true;
 		}
 		return false;
@@ -235,8 +249,12 @@ public class King implements Piece {
 		if ((isWhite && engine.whiteKingInCheck()) || (isBlack && engine.blackKingInCheck())) {
 			return false;
 		}
-		// 4. If King or Rook have moved can't castle
+		// 4. The corner must hold a Rook of the King's color and neither
+		// of them may have moved
 		rook = findRookForCastling();
+		if (!(rook instanceof Rook) || rook.isWhite() != isWhite) {
+			return false;
+		}
 		if (this.hasMoved || rook.hasMoved()) {
 			return false;
 		}
@@ -303,25 +321,7 @@ public class King implements Piece {
 	 * @return true|false
 	 */
 	private boolean nextSquareInCastlingDirectionIsAttacked() {
-		Board b = engine.getBoard();
-		Piece[][] board = b.getBoard();
 		int _y = targetY < y ? y - 1 : y + 1;
-		for (Piece[] ps : board) {
-			for (Piece p : ps) {
-				if (p == null) {
-					continue;
-				}
-				if (this.isWhite) {
-					if (p.isBlack() && p.isLegalMove(null, x, _y)) {
-						return true;
-					}
-				} else {
-					if (p.isWhite() && p.isLegalMove(null, x, _y)) {
-						return true;
-					}
-				}
-			}
-		}
-		return false;
+		return engine.getBoard().isSquareAttacked(x, _y, !this.isWhite);
 	}
 }
@@ -1,6 +1,8 @@
 package chess.pieces;
 
+import chess.engine.Attacks;
 import chess.engine.Engine;
+import chess.engine.Position;
 
 /**
  * Rutgers New Brunswick
@@ -107,6 +109,17 @@ public class Knight implements Piece {
 		y = prevY;
 	}
 
+	/**
+	 * Places this piece on the given rank and file, used by Board when
+	 * making and unmaking moves
+	 * @param x The new rank of this piece
+	 * @param y The new file of this piece
+	 */
+	public void setPosition(int x, int y) {
+		this.x = x;
+		this.y = y;
+	}
+
 	/**
 	 * Method that can be used to determine if this piece is white
 	 * @return true|false
@@ -174,6 +187,14 @@ public class Knight implements Piece {
 		return this.hasMoved;
 	}
 
+	/**
+	 * Method that sets local "hasMoved" flag, used to restore it when a move is unmade
+	 * @param hasMoved The new value of the flag
+	 */
+	public void setMoved(boolean hasMoved) {
+		this.hasMoved = hasMoved;
+	}
+
 	/**
 	 * Method that determines if the next move for this piece is legal
 	 * @param target The target piece
@@ -186,16 +207,8 @@ public class Knight implements Piece {
 		this.target = target;
 		this.targetX = targetX;
 		this.targetY = targetY;
-		if (
-			(targetX == x - 1 && targetY == y - 2) ||
-			(targetX == x - 2 && targetY == y - 1) ||
-			(targetX == x - 2 && targetY == y + 1) ||
-			(targetX == x - 1 && targetY == y + 2) ||
-			(targetX == x + 1 && targetY == y + 2) ||
-			(targetX == x + 2 && targetY == y + 1) ||
-			(targetX == x + 2 && targetY == y - 1) ||
-			(targetX == x + 1 && targetY == y - 2)
-		) {
+		long targetBit = 1L << Position.square(targetX, targetY);
+		if ((Attacks.knightAttacks(Position.square(x, y)) & targetBit) != 0) {
 			return true;
 		}
 		return false;
@@ -1,7 +1,9 @@
 package chess.pieces;
 
+import chess.engine.Attacks;
 import chess.engine.Board;
 import chess.engine.Engine;
+import chess.engine.Position;
 
 /**
  * Rutgers New Brunswick
@@ -118,6 +120,17 @@ public class Pawn implements Piece {
 		y = prevY;
 	}
 
+	/**
+	 * Places this piece on the given rank and file, used by Board when
+	 * making and unmaking moves
+	 * @param x The new rank of this piece
+	 * @param y The new file of this piece
+	 */
+	public void setPosition(int x, int y) {
+		this.x = x;
+		this.y = y;
+	}
+
 	/**
 	 * Method that can be used to determine if this piece is white
 	 * @return true|false
@@ -185,6 +198,14 @@ public class Pawn implements Piece {
 		justMoved2Squares = false;
 	}
 
+	/**
+	 * Method used to set "justMoved2Squares" flag
+	 * @param justMoved2Squares The new value of the flag
+	 */
+	public void setJustMoved2Squares(boolean justMoved2Squares) {
+		this.justMoved2Squares = justMoved2Squares;
+	}
+
 	/**
 	 * Method that outputs the name of this piece to standard output
 	 */
@@ -207,6 +228,14 @@ public class Pawn implements Piece {
 		return this.hasMoved;
 	}
 
+	/**
+	 * Method that sets local "hasMoved" flag, used to restore it when a move is unmade
+	 * @param hasMoved The new value of the flag
+	 */
+	public void setMoved(boolean hasMoved) {
+		this.hasMoved = hasMoved;
+	}
+
 	/**
 	 * Method that determines if the next move for this piece is legal
 	 * @param target The target piece
@@ -220,11 +249,14 @@ public class Pawn implements Piece {
 		this.targetX = targetX;
 		this.targetY = targetY;
 		boolean isRightDiagonal, isLeftDiagonal, move2Squares, isCaptureEnpassant;
+		int color = isWhite ? Position.WHITE : Position.BLACK;
+		long targetBit = 1L << Position.square(targetX, targetY);
+		boolean isDiagonal = (Attacks.pawnAttacks(color, Position.square(x, y)) & targetBit) != 0;
 
 		if (isWhite) {
 			move2Squares = move2Squares(x == 6, targetX == 4, x-1);
-			isRightDiagonal = (targetX == (x-1)) && (targetY == (y+1));
-			isLeftDiagonal = (targetX == (x-1)) && (targetY == (y-1));
+			isRightDiagonal = isDiagonal && targetY > y;
+			isLeftDiagonal = isDiagonal && targetY < y;
 			isCaptureEnpassant = captureEnpassantEnemyPawn(isRightDiagonal, isLeftDiagonal);
 			if (
 				move2Squares ||
@@ -242,8 +274,8 @@ public class Pawn implements Piece {
 			}
 		} else {
 			move2Squares = move2Squares(x == 1, targetX == 3, x+1);
-			isRightDiagonal = (targetX == (x+1)) && (targetY == (y-1));
-			isLeftDiagonal = (targetX == (x+1)) && (targetY == (y+1));
+			isRightDiagonal = isDiagonal && targetY < y;
+			isLeftDiagonal = isDiagonal && targetY > y;
 			isCaptureEnpassant = captureEnpassantEnemyPawn(isRightDiagonal, isLeftDiagonal);
 			if (
 				move2Squares ||
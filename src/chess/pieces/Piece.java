@@ -13,6 +13,11 @@ public interface Piece {
 	 */
 	void draw();
 
+	/**
+	 * @return The 2 letter name of the piece, i.e. "wK"
+	 */
+	String getName();
+
 	/**
 	 * @return The rank of the piece
 	 */
@@ -45,6 +50,13 @@ public interface Piece {
 	 */
 	void rollbackPosition();
 
+	/**
+	 * Places the piece on the given rank and file
+	 * @param x The new rank of the piece
+	 * @param y The new file of the piece
+	 */
+	void setPosition(int x, int y);
+
 	/**
 	 * Method used to determine if piece is the king
 	 * @return true|false
@@ -62,6 +74,12 @@ public interface Piece {
 	 */
 	void moved();
 
+	/**
+	 * Method that sets the "hasMoved" flag
+	 * @param hasMoved The new value of the flag
+	 */
+	void setMoved(boolean hasMoved);
+
 	/**
 	 * Method to determine if next move for piece is legal
 	 * @param target The target piece that this piece will replace
@@ -1,7 +1,8 @@
 package chess.pieces;
 
-import chess.engine.Board;
+import chess.engine.Attacks;
 import chess.engine.Engine;
+import chess.engine.Position;
 
 /**
  * Rutgers New Brunswick
@@ -107,6 +108,17 @@ public class Rook implements Piece {
 		x = prevX;
 		y = prevY;
 	}
+
+	/**
+	 * Places this piece on the given rank and file, used by Board when
+	 * making and unmaking moves
+	 * @param x The new rank of this piece
+	 * @param y The new file of this piece
+	 */
+	public void setPosition(int x, int y) {
+		this.x = x;
+		this.y = y;
+	}
 	
 	/**
 	 * Method that can be used to determine if this piece is white
@@ -175,6 +187,14 @@ public class Rook implements Piece {
 		return this.hasMoved;
 	}
 
+	/**
+	 * Method that sets local "hasMoved" flag, used to restore it when a move is unmade
+	 * @param hasMoved The new value of the flag
+	 */
+	public void setMoved(boolean hasMoved) {
+		this.hasMoved = hasMoved;
+	}
+
 	/**
 	 * Method that determines if the next move for this piece is legal
 	 * @param target The target piece
@@ -186,9 +206,9 @@ public class Rook implements Piece {
 		this.target = target;
 		this.targetX = targetX;
 		this.targetY = targetY;
-		Board b = engine.getBoard();
-		Piece[][] board = b.getBoard();
-		if (SharedRules.isVerticalOrHorizontalMove(x, y, targetX, targetY, board, false)) {
+		Position position = engine.getBoard().getPosition();
+		long attacks = Attacks.rookAttacks(Position.square(x, y), position.allPieces());
+		if ((attacks & (1L << Position.square(targetX, targetY))) != 0) {
 			return true;
 		}
 		return false;
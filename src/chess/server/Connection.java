@@ -0,0 +1,116 @@
+package chess.server;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * The outgoing side of one client connection. Lines are queued by any
+ * thread and written by a writer task of their own, so a client that stops
+ * reading only stalls its own writer, never the player who moved or the
+ * lock of a game. A client that lets MAX_QUEUED lines pile up is
+ * disconnected.
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public class Connection {
+	/**
+	 * Most lines waiting to be written before the client is dropped
+	 */
+	public static final int MAX_QUEUED = 1024;
+
+	/**
+	 * Marks the end of the queue, compared by reference
+	 */
+	private static final String END = new String("end");
+
+	/**
+	 * The socket of the client
+	 */
+	private final Socket socket;
+
+	/**
+	 * The outgoing stream, only used by the writer task
+	 */
+	private final PrintWriter out;
+
+	/**
+	 * Lines waiting to be written
+	 */
+	private final BlockingQueue<String> queue = new LinkedBlockingQueue<String>(MAX_QUEUED);
+
+	/**
+	 * Constructor
+	 * @param socket The socket of the client
+	 * @throws IOException If the output stream of the socket can't be opened
+	 */
+	public Connection(Socket socket) throws IOException {
+		this.socket = socket;
+		this.out = new PrintWriter(
+			new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Queues a line for the client without waiting for it to be written
+	 * @param line The line to write
+	 */
+	public void send(String line) {
+		if (!queue.offer(line)) {
+			// The client stopped reading, its reader sees the closed socket
+			closeSocket();
+		}
+	}
+
+	/**
+	 * Writes the queued lines until "close" is called, then closes the socket.
+	 * Runs on a thread of its own.
+	 */
+	void writeLoop() {
+		try {
+			String line;
+			while ((line = queue.take()) != END) {
+				out.println(line);
+				if (queue.isEmpty()) {
+					out.flush();
+				}
+				if (out.checkError()) {
+					break;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			closeSocket();
+		}
+	}
+
+	/**
+	 * Closes the connection once the lines queued before are written
+	 */
+	public void close() {
+		if (!queue.offer(END)) {
+			closeSocket();
+			queue.clear();
+			queue.offer(END);
+		}
+	}
+
+	/**
+	 * Closes the socket right away, unblocking its reader and writer
+	 */
+	private void closeSocket() {
+		try {
+			socket.close();
+		} catch (IOException e) {
+			// Nothing left to do
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package chess.server;
+
+import chess.engine.Engine;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * Games hosted by the server, keyed by game id
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public class GameRegistry {
+	/**
+	 * The hosted games
+	 */
+	private final ConcurrentMap<String, GameSession> games =
+		new ConcurrentHashMap<String, GameSession>();
+
+	/**
+	 * Number of the last game created, used to build the ids
+	 */
+	private final AtomicLong lastId = new AtomicLong();
+
+	/**
+	 * Creates a game from the initial position
+	 * @return The new game
+	 */
+	public GameSession create() {
+		String id = "g" + lastId.incrementAndGet();
+		GameSession session = new GameSession(id, new Engine());
+		games.put(id, session);
+		return session;
+	}
+
+	/**
+	 * @param id The id of the game
+	 * @return The game, or null if there is none with that id
+	 */
+	public GameSession get(String id) {
+		return games.get(id);
+	}
+
+	/**
+	 * Removes a game
+	 * @param session The game to remove
+	 */
+	public void remove(GameSession session) {
+		games.remove(session.getId(), session);
+	}
+
+	/**
+	 * @return The number of hosted games
+	 */
+	public int size() {
+		return games.size();
+	}
+}
@@ -0,0 +1,196 @@
+package chess.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * Hosts many games on a local socket, one thread reading and one thread
+ * writing per connection. Virtual threads are used when the JVM has them
+ * (Java 21 and later). Each line a
+ * client sends is one command:
+ *   new [white|black]         creates a game and takes a seat
+ *   join id [white|black]     takes a seat in a game
+ *   board                     replies with the position in FEN
+ *   status                    replies with the state of the game
+ *   quit                      closes the connection
+ * Any other line is played as a move of the console game, i.e. "e2e4",
+ * "e7e8 N", "e2e4 draw?", "draw" or "resign". The opponent receives
+ * "opponent" followed by the move and the new state of the game.
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public class GameServer {
+	/**
+	 * The hosted games
+	 */
+	private final GameRegistry registry = new GameRegistry();
+
+	/**
+	 * Runs one task per connection
+	 */
+	private final ExecutorService executor = newThreadPerTaskExecutor();
+
+	/**
+	 * The listening socket
+	 */
+	private final ServerSocket server;
+
+	/**
+	 * Constructor, listens on the loopback address
+	 * @param port The port to listen on, 0 for any free port
+	 * @throws IOException If the port can't be opened
+	 */
+	public GameServer(int port) throws IOException {
+		this.server = new ServerSocket(port, 512, InetAddress.getLoopbackAddress());
+	}
+
+	/**
+	 * @return The port the server listens on
+	 */
+	public int getPort() {
+		return server.getLocalPort();
+	}
+
+	/**
+	 * @return The hosted games
+	 */
+	public GameRegistry getRegistry() {
+		return registry;
+	}
+
+	/**
+	 * Accepts connections until the server is closed
+	 */
+	public void serve() {
+		while (!server.isClosed()) {
+			try {
+				Socket socket = server.accept();
+				executor.execute(() -> handle(socket));
+			} catch (IOException e) {
+				if (!server.isClosed()) {
+					System.err.println("Accept failed: " + e.getMessage());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Stops accepting connections
+	 * @throws IOException If the socket can't be closed
+	 */
+	public void close() throws IOException {
+		server.close();
+		executor.shutdown();
+	}
+
+	/**
+	 * Reads the commands of one connection until it is closed
+	 * @param socket The connection
+	 */
+	private void handle(Socket socket) {
+		GameSession session = null;
+		Connection out = null;
+		try {
+			BufferedReader in = new BufferedReader(
+				new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+			out = new Connection(socket);
+			executor.execute(out::writeLoop);
+			String line;
+			while ((line = in.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty()) {
+					continue;
+				}
+				String[] words = line.split("\\s+");
+				String command = words[0].toLowerCase();
+				String reply;
+				if (command.equals("quit")) {
+					out.send("bye");
+					break;
+				} else if (command.equals("new") || command.equals("join")) {
+					if (session != null) {
+						leave(session, out);
+					}
+					session = command.equals("new") ? registry.create()
+						: words.length > 1 ? registry.get(words[1]) : null;
+					String color = words.length > (command.equals("new") ? 1 : 2)
+						? words[words.length - 1].toLowerCase() : null;
+					String seat = session == null ? null : session.join(out, color);
+					if (session == null || (seat == null && session.isClosed())) {
+						reply = "error unknown game";
+						session = null;
+					} else if (seat == null) {
+						reply = "error seat taken";
+						session = null;
+					} else {
+						reply = "ok " + session.getId() + " " + seat;
+					}
+				} else if (session == null) {
+					reply = "error no game, send new or join";
+				} else if (command.equals("board")) {
+					reply = "fen " + session.getFen();
+				} else if (command.equals("status")) {
+					reply = "status " + session.getState();
+				} else {
+					try {
+						reply = session.submit(out, line);
+					} catch (RuntimeException e) {
+						// A bug in the rules must not drop the player from the game
+						reply = "error could not play " + line;
+					}
+				}
+				out.send(reply);
+			}
+		} catch (IOException e) {
+			// Connection dropped, free the seat below
+		} finally {
+			if (session != null) {
+				leave(session, out);
+			}
+			if (out != null) {
+				out.close();
+			} else {
+				try {
+					socket.close();
+				} catch (IOException e) {
+					// Nothing left to do
+				}
+			}
+		}
+	}
+
+	/**
+	 * Frees the seat of a player and drops the game once nobody plays it
+	 * @param session The game
+	 * @param out The connection of the player
+	 */
+	private void leave(GameSession session, Connection out) {
+		if (session.leave(out)) {
+			registry.remove(session);
+		}
+	}
+
+	/**
+	 * @return An executor that starts a virtual thread per task when the JVM
+	 * supports them, and a platform thread per task otherwise
+	 */
+	private static ExecutorService newThreadPerTaskExecutor() {
+		try {
+			return (ExecutorService)Executors.class
+				.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool();
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package chess.server;
+
+import chess.engine.Engine;
+import chess.engine.GameStatus;
+import chess.engine.MoveResult;
+
+/**
+ * Rutgers New Brunswick
+ * CSC-213 (Software Methodology)
+ *
+ * One hosted game: its own Engine and the connections of both players.
+ * Every method is synchronized on the session, so the two players of a game
+ * can't interleave moves, while different games never share any state.
+ * Lines for the players are only queued on their connections while the
+ * lock is held, writing them never blocks a game.
+ *
+ * @author Danilo Navas (den34)
+ * @version 1.0
+ */
+public class GameSession {
+	/**
+	 * Id of the game in the registry
+	 */
+	private final String id;
+
+	/**
+	 * The game, only used while holding the session lock
+	 */
+	private final Engine engine;
+
+	/**
+	 * Connection of the white player, or null if nobody plays white
+	 */
+	private Connection white;
+
+	/**
+	 * Connection of the black player, or null if nobody plays black
+	 */
+	private Connection black;
+
+	/**
+	 * Value that represents if both players left and the game was dropped
+	 */
+	private boolean closed;
+
+	/**
+	 * Constructor
+	 * @param id Id of the game in the registry
+	 * @param engine The game
+	 */
+	public GameSession(String id, Engine engine) {
+		this.id = id;
+		this.engine = engine;
+	}
+
+	/**
+	 * @return The id of the game in the registry
+	 */
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * Takes a free seat
+	 * @param player The connection of the player
+	 * @param color "white", "black" or null for any free seat
+	 * @return The color taken, or null if the seat isn't free or the game
+	 * was closed
+	 */
+	public synchronized String join(Connection player, String color) {
+		if (closed) {
+			return null;
+		}
+		if (white == null && (color == null || color.equals("white"))) {
+			white = player;
+			return "white";
+		}
+		if (black == null && (color == null || color.equals("black"))) {
+			black = player;
+			return "black";
+		}
+		return null;
+	}
+
+	/**
+	 * Frees the seat of a player. The game is closed once nobody is left,
+	 * nobody can join it after that.
+	 * @param player The connection of the player
+	 * @return true if nobody is left in the game, false otherwise
+	 */
+	public synchronized boolean leave(Connection player) {
+		if (white == player) {
+			white = null;
+		}
+		if (black == player) {
+			black = null;
+		}
+		closed = white == null && black == null;
+		return closed;
+	}
+
+	/**
+	 * Method that determines if both players left and the game was dropped
+	 * @return true|false
+	 */
+	public synchronized boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * Plays one input for a player and tells the opponent about it
+	 * @param player The connection of the player
+	 * @param input The input, in the syntax of the console game
+	 * @return The reply for the player
+	 */
+	public synchronized String submit(Connection player, String input) {
+		boolean whiteTurn = engine.isWhiteTurn();
+		if (player != (whiteTurn ? white : black)) {
+			return "error not your turn";
+		}
+		MoveResult result = engine.submitMove(input);
+		if (!result.isLegal()) {
+			return "illegal " + result.getMessage();
+		}
+		String state = result.getStatus() + (result.isCheck() ? " check" : "");
+		Connection opponent = whiteTurn ? black : white;
+		if (opponent != null) {
+			opponent.send("opponent " + input + " " + state);
+		}
+		return "ok " + state;
+	}
+
+	/**
+	 * @return The position of the game in FEN
+	 */
+	public synchronized String getFen() {
+		return engine.getBoard().toFen();
+	}
+
+	/**
+	 * @return The state of the game and the player to move
+	 */
+	public synchronized String getState() {
+		GameStatus status = engine.getStatus();
+		return status + " " + (engine.isWhiteTurn() ? "white" : "black") + " to move";
+	}
+
+	/**
+	 * @return true if the game ended, false otherwise
+	 */
+	public synchronized boolean isOver() {
+		return engine.getStatus().isOver();
+	}
+}